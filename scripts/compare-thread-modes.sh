@@ -0,0 +1,70 @@
+#!/usr/bin/env sh
+# Compares throughput and latency of platform-thread and virtual-thread request handling.
+#
+# Requires MySQL and Redis from docker-compose.yaml and the `hey` load generator
+# (https://github.com/rakyll/hey). Each mode runs the same endpoints with the same
+# concurrency against a freshly started application; raw reports go to
+# build/thread-modes/<mode>/<endpoint>.txt and a summary is printed at the end.
+#
+# Usage: scripts/compare-thread-modes.sh [concurrency] [duration]
+set -eu
+
+CONCURRENCY=${1:-500}
+DURATION=${2:-30s}
+PORT=${PORT:-8087}
+BASE_URL="http://localhost:$PORT"
+OUT_DIR=build/thread-modes
+ENDPOINTS="api/v1/events/1 api/v1/events/popular api/v1/events/last api/v1/comments/event/1"
+
+sh ./gradlew -q bootJar
+JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)
+
+wait_for_health() {
+    for _ in $(seq 1 60); do
+        if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Application did not become healthy" >&2
+    return 1
+}
+
+run_mode() {
+    mode=$1
+    virtual=$2
+    mkdir -p "$OUT_DIR/$mode"
+    AFISHA_VIRTUAL_THREADS=$virtual java -jar "$JAR" --server.port="$PORT" > "$OUT_DIR/$mode/app.log" 2>&1 &
+    app_pid=$!
+    trap 'kill $app_pid 2>/dev/null' EXIT
+    wait_for_health
+
+    for endpoint in $ENDPOINTS; do
+        # Warm-up so JIT and caches are comparable between modes
+        hey -z 5s -c "$CONCURRENCY" "$BASE_URL/$endpoint" > /dev/null
+        hey -z "$DURATION" -c "$CONCURRENCY" "$BASE_URL/$endpoint" > "$OUT_DIR/$mode/$(echo "$endpoint" | tr '/' '_').txt"
+    done
+    if [ "$virtual" = "true" ]; then
+        curl -sf "$BASE_URL/actuator/metrics/jvm.threads.virtual.pinned" > "$OUT_DIR/$mode/pinned.json" || true
+    fi
+
+    kill $app_pid
+    wait $app_pid 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
+
+printf '%-8s %-32s %12s %10s %10s\n' mode endpoint req/s p50 p99
+for mode in platform virtual; do
+    for report in "$OUT_DIR/$mode"/api_*.txt; do
+        rps=$(awk '/Requests\/sec/ {print $2}' "$report")
+        p50=$(awk '/ 50% in/ {print $3}' "$report")
+        p99=$(awk '/ 99% in/ {print $3}' "$report")
+        printf '%-8s %-32s %12s %10s %10s\n' "$mode" "$(basename "$report" .txt)" "$rps" "$p50" "$p99"
+    done
+done
+if [ -f "$OUT_DIR/virtual/pinned.json" ]; then
+    echo "Pinned virtual threads: $(cat "$OUT_DIR/virtual/pinned.json")"
+fi
@@ -0,0 +1,144 @@
+package by.ilyatr.afisha_rest_api.benchmarks;
+
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch inserts into a copy of the comments table keyed by random VARCHAR(36) UUIDs or by
+ * time-ordered BINARY(16) UUIDs; the table and index sizes are printed after each trial.
+ * <p>
+ * Needs a MySQL database the user may create tables in:
+ * {@code BENCH_MYSQL_URL=jdbc:mysql://localhost:3308/afisha_db BENCH_MYSQL_USER=... BENCH_MYSQL_PASSWORD=...
+ * ./gradlew jmh -Pjmh.includes=CommentKeyBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommentKeyBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    private static final int EVENTS = 100;
+    private static final String TEXT = "Amazing concert! Can't wait for the next one!";
+
+    @Param({"VARCHAR_RANDOM", "BINARY_TIME_ORDERED"})
+    public KeyType keyType;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private String table;
+    private Object[] eventIds;
+    private Object[] userIds;
+
+    public enum KeyType {
+        VARCHAR_RANDOM("VARCHAR(36)") {
+            @Override
+            Object next() {
+                return UUID.randomUUID().toString();
+            }
+        },
+        BINARY_TIME_ORDERED("BINARY(16)") {
+            @Override
+            Object next() {
+                return BinaryUuidType.toBytes(TimeOrderedUuid.next());
+            }
+        };
+
+        private final String columnType;
+
+        KeyType(String columnType) {
+            this.columnType = columnType;
+        }
+
+        abstract Object next();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = Objects.requireNonNull(System.getenv("BENCH_MYSQL_URL"), "BENCH_MYSQL_URL is not set");
+        connection = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true",
+                System.getenv("BENCH_MYSQL_USER"), System.getenv("BENCH_MYSQL_PASSWORD"));
+        table = "comments_bench_" + keyType.name().toLowerCase();
+        String id = keyType.columnType + " NOT NULL";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + "(" +
+                    "id " + id + ", user_id " + id + ", event_id " + id + ", " +
+                    "text text NOT NULL, created_at timestamp NOT NULL, updated_at timestamp NOT NULL, " +
+                    "PRIMARY KEY(id), " +
+                    "INDEX idx_user_id(user_id), " +
+                    "INDEX idx_event_id_updated_at_id(event_id, updated_at DESC, id DESC))");
+        }
+        eventIds = new Object[EVENTS];
+        userIds = new Object[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            eventIds[i] = keyType.next();
+            userIds[i] = keyType.next();
+        }
+        insert = connection.prepareStatement("INSERT INTO " + table +
+                "(id, user_id, event_id, text, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, keyType.next());
+            insert.setObject(2, userIds[random.nextInt(EVENTS)]);
+            insert.setObject(3, eventIds[random.nextInt(EVENTS)]);
+            insert.setString(4, TEXT);
+            insert.setTimestamp(5, now);
+            insert.setTimestamp(6, now);
+            insert.addBatch();
+        }
+        return insert.executeBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + table);
+            try (ResultSet sizes = statement.executeQuery("SELECT table_rows, data_length, index_length " +
+                    "FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = '" + table + "'")) {
+                if (sizes.next()) {
+                    System.out.printf("%n%s: ~%d rows, data %.1f MiB, secondary indexes %.1f MiB%n", keyType,
+                            sizes.getLong(1), sizes.getLong(2) / 1048576.0, sizes.getLong(3) / 1048576.0);
+                }
+            }
+            statement.execute("DROP TABLE " + table);
+        } finally {
+            insert.close();
+            connection.close();
+        }
+    }
+}
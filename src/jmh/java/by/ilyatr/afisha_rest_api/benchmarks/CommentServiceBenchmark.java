@@ -0,0 +1,60 @@
+package by.ilyatr.afisha_rest_api.benchmarks;
+
+import by.ilyatr.afisha_rest_api.benchmarks.support.ServiceFixture;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code CommentService} read paths with warm caches, against in-memory stand-ins.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommentServiceBenchmark {
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 5);
+
+    private ServiceFixture fixture;
+    private String eventId;
+    private String commentId;
+
+    @Setup
+    public void setUp() {
+        fixture = new ServiceFixture();
+        eventId = ServiceFixture.eventId(0);
+        commentId = eventId + "-comment-0";
+        fixture.commentService.getComments(eventId, FIRST_PAGE);
+        fixture.commentService.getComment(commentId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public CommentDto getComment() {
+        return fixture.commentService.getComment(commentId);
+    }
+
+    @Benchmark
+    public Page<CommentDto> getCommentsFirstPage() {
+        return fixture.commentService.getComments(eventId, FIRST_PAGE);
+    }
+}
@@ -0,0 +1,73 @@
+package by.ilyatr.afisha_rest_api.benchmarks;
+
+import by.ilyatr.afisha_rest_api.benchmarks.support.ServiceFixture;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code EventService} read paths with warm caches, against in-memory stand-ins.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventServiceBenchmark {
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 5);
+
+    private ServiceFixture fixture;
+    private String hotEventId;
+
+    @Setup
+    public void setUp() {
+        fixture = new ServiceFixture();
+        hotEventId = ServiceFixture.eventId(ServiceFixture.EVENTS - 1);
+        for (int i = 0; i < 10; i++) {
+            fixture.redisTemplate.opsForZSet().incrementScore("events:popular", ServiceFixture.eventId(i), 10 - i);
+        }
+        fixture.eventService.getPopularEvents();
+        fixture.eventService.getLastEvents(FIRST_PAGE);
+        fixture.eventService.getEventById(hotEventId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public EventDto getEvent() {
+        return fixture.eventService.getEvent(hotEventId);
+    }
+
+    @Benchmark
+    public EventDto getEventById() {
+        return fixture.eventService.getEventById(hotEventId);
+    }
+
+    @Benchmark
+    public List<EventDto> getPopularEvents() {
+        return fixture.eventService.getPopularEvents();
+    }
+
+    @Benchmark
+    public Page<EventDto> getLastEventsFirstPage() {
+        return fixture.eventService.getLastEvents(FIRST_PAGE);
+    }
+}
@@ -0,0 +1,85 @@
+package by.ilyatr.afisha_rest_api.benchmarks;
+
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.UserDto;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.entities.User;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapper;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapperImpl;
+import by.ilyatr.afisha_rest_api.mapper.EventMapper;
+import by.ilyatr.afisha_rest_api.mapper.EventMapperImpl;
+import by.ilyatr.afisha_rest_api.mapper.UserMapper;
+import by.ilyatr.afisha_rest_api.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private final EventMapper eventMapper = new EventMapperImpl();
+    private final CommentMapper commentMapper = new CommentMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private Event event;
+    private EventDto eventDto;
+    private Comment comment;
+    private CommentDto commentDto;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.parse("2025-12-01T19:00:00Z");
+        user = User.builder().id("1").name("user1").email("user1@example.com").password("password1")
+                .createdAt(now).build();
+        event = Event.builder().id("1").title("The Rolling Stones Concert").date(now)
+                .category(Category.Concert).price(BigDecimal.valueOf(100)).build();
+        comment = Comment.builder().id("1").user(user).event(event)
+                .text("Amazing concert! Can't wait for the next one!").createdAt(now).updatedAt(now).build();
+        eventDto = eventMapper.toEventDto(event);
+        commentDto = commentMapper.toCommentDto(comment);
+    }
+
+    @Benchmark
+    public EventDto eventToDto() {
+        return eventMapper.toEventDto(event);
+    }
+
+    @Benchmark
+    public Event dtoToEvent() {
+        return eventMapper.toEvent(eventDto);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return commentMapper.toCommentDto(comment);
+    }
+
+    @Benchmark
+    public Comment dtoToComment() {
+        return commentMapper.toComment(commentDto);
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return userMapper.toUserDto(user);
+    }
+}
@@ -0,0 +1,92 @@
+package by.ilyatr.afisha_rest_api.benchmarks;
+
+import by.ilyatr.afisha_rest_api.configuration.CacheSerializationProperties;
+import by.ilyatr.afisha_rest_api.configuration.RedisConfiguration;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of the cache value serializers selectable in {@code RedisConfiguration}.
+ * Entry sizes per format are printed once per fork.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisSerializerBenchmark {
+    @Param({"JSON", "COMPACT"})
+    private CacheSerializationProperties.Format format;
+
+    private RedisSerializer<Object> serializer;
+    private EventDto event;
+    private CommentDto comment;
+    private String id;
+    private byte[] eventBytes;
+    private byte[] commentBytes;
+    private byte[] idBytes;
+
+    @Setup
+    public void setUp() {
+        serializer = RedisConfiguration.valueSerializer(format);
+        Instant now = Instant.parse("2025-12-01T19:00:00Z");
+        event = new EventDto("0190b3c6-8a4e-7cc2-9d4f-4b1f6a2c9e01", "The Rolling Stones Concert", now,
+                Category.Concert, BigDecimal.valueOf(100), null, null);
+        comment = new CommentDto("0190b3c6-8a4e-7cc2-9d4f-4b1f6a2c9e02", "0190b3c6-8a4e-7cc2-9d4f-4b1f6a2c9e03",
+                event.getId(), "Amazing concert! Can't wait for the next one!", now, now);
+        id = event.getId();
+        eventBytes = serializer.serialize(event);
+        commentBytes = serializer.serialize(comment);
+        idBytes = serializer.serialize(id);
+        System.out.printf("%n%s entry size: event=%dB comment=%dB id=%dB%n",
+                format, eventBytes.length, commentBytes.length, idBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeEvent() {
+        return serializer.serialize(event);
+    }
+
+    @Benchmark
+    public Object deserializeEvent() {
+        return serializer.deserialize(eventBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeComment() {
+        return serializer.serialize(comment);
+    }
+
+    @Benchmark
+    public Object deserializeComment() {
+        return serializer.deserialize(commentBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeId() {
+        return serializer.serialize(id);
+    }
+
+    @Benchmark
+    public Object deserializeId() {
+        return serializer.deserialize(idBytes);
+    }
+}
@@ -0,0 +1,200 @@
+package by.ilyatr.afisha_rest_api.benchmarks.support;
+
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static by.ilyatr.afisha_rest_api.benchmarks.support.Stubs.stub;
+import static by.ilyatr.afisha_rest_api.benchmarks.support.Stubs.unsupported;
+
+/**
+ * Single-process keyspace behind {@link InMemoryRedisTemplate} and {@link InMemoryStringRedisTemplate}.
+ * Implements the list, sorted set and string commands the services issue; expiry is ignored.
+ */
+public class InMemoryRedis {
+    private final Map<String, Object> keyspace = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <V> ListOperations<String, V> listOps() {
+        return stub(ListOperations.class, (method, args) -> {
+            synchronized (this) {
+                String key = (String) args[0];
+                return switch (method) {
+                    case "range" -> {
+                        List<Object> list = list(key);
+                        int[] bounds = bounds(list.size(), (Long) args[1], (Long) args[2]);
+                        yield new ArrayList<>(list.subList(bounds[0], bounds[1]));
+                    }
+                    case "trim" -> {
+                        List<Object> list = list(key);
+                        int[] bounds = bounds(list.size(), (Long) args[1], (Long) args[2]);
+                        List<Object> kept = new LinkedList<>(list.subList(bounds[0], bounds[1]));
+                        keyspace.put(key, kept);
+                        yield null;
+                    }
+                    case "leftPush" -> {
+                        List<Object> list = list(key);
+                        list.addFirst(args[1]);
+                        keyspace.put(key, list);
+                        yield (long) list.size();
+                    }
+                    case "remove" -> {
+                        List<Object> list = list(key);
+                        long removed = 0;
+                        long count = (Long) args[1];
+                        var it = list.iterator();
+                        while (it.hasNext() && (count == 0 || removed < count)) {
+                            if (Objects.equals(it.next(), args[2])) {
+                                it.remove();
+                                removed++;
+                            }
+                        }
+                        yield removed;
+                    }
+                    default -> throw unsupported(ListOperations.class, method);
+                };
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> ZSetOperations<String, V> zSetOps() {
+        return stub(ZSetOperations.class, (method, args) -> {
+            synchronized (this) {
+                String key = (String) args[0];
+                Map<Object, Double> zSet = zSet(key);
+                return switch (method) {
+                    case "add" -> {
+                        boolean added = zSet.put(args[1], (Double) args[2]) == null;
+                        keyspace.put(key, zSet);
+                        yield added;
+                    }
+                    case "incrementScore" -> {
+                        double score = zSet.merge(args[1], (Double) args[2], Double::sum);
+                        keyspace.put(key, zSet);
+                        yield score;
+                    }
+                    case "remove" -> {
+                        long removed = 0;
+                        for (Object member : (Object[]) args[1]) {
+                            if (zSet.remove(member) != null) {
+                                removed++;
+                            }
+                        }
+                        yield removed;
+                    }
+                    case "zCard", "size" -> (long) zSet.size();
+                    case "range" -> rank(zSet, (Long) args[1], (Long) args[2], false);
+                    case "reverseRange" -> rank(zSet, (Long) args[1], (Long) args[2], true);
+                    default -> throw unsupported(ZSetOperations.class, method);
+                };
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> ValueOperations<String, V> valueOps() {
+        return stub(ValueOperations.class, (method, args) -> {
+            synchronized (this) {
+                return switch (method) {
+                    case "get" -> keyspace.get((String) args[0]);
+                    case "set" -> {
+                        keyspace.put((String) args[0], args[1]);
+                        yield null;
+                    }
+                    case "setIfAbsent" -> keyspace.putIfAbsent((String) args[0], args[1]) == null;
+                    case "multiGet" -> {
+                        List<Object> values = new ArrayList<>();
+                        for (Object key : (Collection<?>) args[0]) {
+                            values.add(keyspace.get((String) key));
+                        }
+                        yield values;
+                    }
+                    default -> throw unsupported(ValueOperations.class, method);
+                };
+            }
+        });
+    }
+
+    public synchronized Long incrementIfExists(String key, long delta) {
+        Object value = keyspace.get(key);
+        if (value == null) {
+            return null;
+        }
+        long updated = Long.parseLong(value.toString()) + delta;
+        keyspace.put(key, Long.toString(updated));
+        return updated;
+    }
+
+    /**
+     * ZADD GT of every member, then keeps the highest scored capacity members.
+     */
+    public synchronized long addCapped(String key, boolean onlyIfExists, int capacity, Map<Object, Double> members) {
+        if (onlyIfExists && !keyspace.containsKey(key)) {
+            return 0;
+        }
+        Map<Object, Double> zSet = zSet(key);
+        members.forEach((member, score) -> zSet.merge(member, score, Math::max));
+        Set<Object> kept = rank(zSet, 0, capacity - 1L, true);
+        zSet.keySet().retainAll(kept);
+        keyspace.put(key, zSet);
+        return 1;
+    }
+
+    public synchronized boolean exists(String key) {
+        return keyspace.containsKey(key);
+    }
+
+    public synchronized boolean delete(String key) {
+        return keyspace.remove(key) != null;
+    }
+
+    public synchronized boolean deleteIfEquals(String key, Object expected) {
+        return keyspace.remove(key, expected);
+    }
+
+    public synchronized void rename(String oldKey, String newKey) {
+        keyspace.put(newKey, keyspace.remove(oldKey));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> list(String key) {
+        return (List<Object>) keyspace.getOrDefault(key, new LinkedList<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Double> zSet(String key) {
+        return (Map<Object, Double>) keyspace.getOrDefault(key, new HashMap<>());
+    }
+
+    private static Set<Object> rank(Map<Object, Double> zSet, long start, long end, boolean reverse) {
+        Comparator<Map.Entry<Object, Double>> order = Map.Entry.comparingByValue();
+        List<Object> ranked = zSet.entrySet().stream()
+                .sorted(reverse ? order.reversed() : order)
+                .map(Map.Entry::getKey)
+                .toList();
+        int[] bounds = bounds(ranked.size(), start, end);
+        return new LinkedHashSet<>(ranked.subList(bounds[0], bounds[1]));
+    }
+
+    // Redis inclusive [start, end] with negative offsets from the tail, as a subList range
+    private static int[] bounds(int size, long start, long end) {
+        long from = start < 0 ? Math.max(size + start, 0) : start;
+        long to = end < 0 ? size + end : Math.min(end, size - 1L);
+        if (from > to || from >= size) {
+            return new int[]{0, 0};
+        }
+        return new int[]{(int) from, (int) to + 1};
+    }
+}
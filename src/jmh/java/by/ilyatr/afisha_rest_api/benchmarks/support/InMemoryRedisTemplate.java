@@ -0,0 +1,108 @@
+package by.ilyatr.afisha_rest_api.benchmarks.support;
+
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Template over {@link InMemoryRedis}: pipelines run their commands directly and return no results.
+ */
+public class InMemoryRedisTemplate extends RedisTemplate<String, Object> {
+    private final InMemoryRedis redis;
+    private final ListOperations<String, Object> listOps;
+    private final ZSetOperations<String, Object> zSetOps;
+    private final ValueOperations<String, Object> valueOps;
+
+    public InMemoryRedisTemplate(InMemoryRedis redis) {
+        this.redis = redis;
+        this.listOps = redis.listOps();
+        this.zSetOps = redis.zSetOps();
+        this.valueOps = redis.valueOps();
+        setValueSerializer(RedisSerializer.json());
+    }
+
+    @Override
+    public ListOperations<String, Object> opsForList() {
+        return listOps;
+    }
+
+    @Override
+    public ZSetOperations<String, Object> opsForZSet() {
+        return zSetOps;
+    }
+
+    @Override
+    public ValueOperations<String, Object> opsForValue() {
+        return valueOps;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Object> executePipelined(SessionCallback<?> session) {
+        ((SessionCallback) session).execute(this);
+        return List.of();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        if (script.getScriptAsString().contains("INCRBY")) {
+            return (T) redis.incrementIfExists(keys.getFirst(), Long.parseLong(args[0].toString()));
+        }
+        throw new UnsupportedOperationException("Script is not supported by the stand-in: " + script.getSha1());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer, RedisSerializer<T> resultSerializer,
+                         List<String> keys, Object... args) {
+        String source = script.getScriptAsString();
+        if (source.contains("ZREMRANGEBYRANK")) {
+            // Encoded arguments: capacity, the TTL when loading, then score and member pairs
+            boolean load = source.contains("PEXPIRE");
+            Map<Object, Double> members = new LinkedHashMap<>();
+            for (int i = load ? 2 : 1; i < args.length; i += 2) {
+                members.put(getValueSerializer().deserialize((byte[]) args[i + 1]), Double.parseDouble(text(args[i])));
+            }
+            return (T) (Long) redis.addCapped(keys.getFirst(), !load, Integer.parseInt(text(args[0])), members);
+        }
+        if (source.contains("INCRBY")) {
+            return (T) redis.incrementIfExists(keys.getFirst(), Long.parseLong(args[0].toString()));
+        }
+        throw new UnsupportedOperationException("Script is not supported by the stand-in: " + script.getSha1());
+    }
+
+    private static String text(Object arg) {
+        return new String((byte[]) arg, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return redis.delete(key);
+    }
+
+    @Override
+    public void rename(String oldKey, String newKey) {
+        redis.rename(oldKey, newKey);
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+        return 0L;
+    }
+}
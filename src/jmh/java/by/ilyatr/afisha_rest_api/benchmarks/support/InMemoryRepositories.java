@@ -0,0 +1,129 @@
+package by.ilyatr.afisha_rest_api.benchmarks.support;
+
+import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapper;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapperImpl;
+import by.ilyatr.afisha_rest_api.mapper.EventMapper;
+import by.ilyatr.afisha_rest_api.mapper.EventMapperImpl;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.repositories.SubscriptionRepository;
+import by.ilyatr.afisha_rest_api.repositories.UserRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static by.ilyatr.afisha_rest_api.benchmarks.support.Stubs.stub;
+import static by.ilyatr.afisha_rest_api.benchmarks.support.Stubs.unsupported;
+
+/**
+ * Map-backed repositories implementing the query methods used on the service read paths.
+ */
+public final class InMemoryRepositories {
+    private static final Comparator<Event> BY_DATE_DESC =
+            Comparator.comparing(Event::getDate).thenComparing(Event::getId).reversed();
+    private static final Comparator<Comment> BY_UPDATED_AT_DESC =
+            Comparator.comparing(Comment::getUpdatedAt).thenComparing(Comment::getId).reversed();
+
+    private static final EventMapper EVENT_MAPPER = new EventMapperImpl();
+    private static final CommentMapper COMMENT_MAPPER = new CommentMapperImpl();
+
+    private InMemoryRepositories() {
+    }
+
+    public static EventRepository events(Map<String, Event> events) {
+        return stub(EventRepository.class, (method, args) -> switch (method) {
+            case "findById" -> Optional.ofNullable(events.get((String) args[0]));
+            case "existsById" -> events.containsKey((String) args[0]);
+            case "findAllById" -> StreamSupport.stream(((Iterable<?>) args[0]).spliterator(), false)
+                    .map(events::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            case "count" -> (long) events.size();
+            case "findDtoById" -> Optional.ofNullable(events.get((String) args[0])).map(EVENT_MAPPER::toEventDto);
+            case "findDtosByIds" -> ((Collection<?>) args[0]).stream()
+                    .map(events::get)
+                    .filter(Objects::nonNull)
+                    .map(EVENT_MAPPER::toEventDto)
+                    .toList();
+            case "findIdsByIds" -> ((Collection<?>) args[0]).stream().filter(events::containsKey).toList();
+            case "findDtosByDateDescIdDesc" -> events.values().stream()
+                    .sorted(BY_DATE_DESC)
+                    .limit(((Limit) args[0]).max())
+                    .map(EVENT_MAPPER::toEventDto)
+                    .toList();
+            case "findDtosByDateDesc" -> page(events.values().stream().sorted(BY_DATE_DESC), (Pageable) args[0]).stream()
+                    .map(EVENT_MAPPER::toEventDto)
+                    .toList();
+            default -> throw unsupported(EventRepository.class, method);
+        });
+    }
+
+    public static CommentRepository comments(Map<String, Comment> comments) {
+        return stub(CommentRepository.class, (method, args) -> switch (method) {
+            case "findById" -> Optional.ofNullable(comments.get((String) args[0]));
+            case "findDtoById" -> Optional.ofNullable(comments.get((String) args[0])).map(COMMENT_MAPPER::toCommentDto);
+            case "findDtosByIds" -> ((Collection<?>) args[0]).stream()
+                    .map(comments::get)
+                    .filter(Objects::nonNull)
+                    .map(COMMENT_MAPPER::toCommentDto)
+                    .toList();
+            case "existsById" -> comments.containsKey((String) args[0]);
+            case "findAllById" -> StreamSupport
+                    .stream(((Iterable<?>) args[0]).spliterator(), false)
+                    .map(comments::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            case "countByEventId" -> byEvent(comments, (String) args[0]).count();
+            case "countByEventIds" -> {
+                Collection<?> eventIds = (Collection<?>) args[0];
+                List<Object[]> rows = new ArrayList<>();
+                comments.values().stream()
+                        .filter(comment -> eventIds.contains(comment.getEvent().getId()))
+                        .collect(Collectors.groupingBy(comment -> comment.getEvent().getId(), Collectors.counting()))
+                        .forEach((eventId, count) -> rows.add(new Object[]{eventId, count}));
+                yield rows;
+            }
+            case "findDtosByEventId" -> {
+                Stream<Comment> sorted = byEvent(comments, (String) args[0]).sorted(BY_UPDATED_AT_DESC);
+                List<Comment> page = args[1] instanceof Limit limit
+                        ? sorted.limit(limit.max()).toList()
+                        : page(sorted, (Pageable) args[1]);
+                yield page.stream().map(COMMENT_MAPPER::toCommentDto).toList();
+            }
+            default -> throw unsupported(CommentRepository.class, method);
+        });
+    }
+
+    public static SubscriptionRepository subscriptions() {
+        return stub(SubscriptionRepository.class, (method, args) -> switch (method) {
+            case "countByEventId" -> 0L;
+            default -> throw unsupported(SubscriptionRepository.class, method);
+        });
+    }
+
+    public static UserRepository users() {
+        return stub(UserRepository.class, (method, args) -> {
+            throw unsupported(UserRepository.class, method);
+        });
+    }
+
+    private static Stream<Comment> byEvent(Map<String, Comment> comments, String eventId) {
+        return comments.values().stream().filter(comment -> comment.getEvent().getId().equals(eventId));
+    }
+
+    private static <T> List<T> page(Stream<T> sorted, Pageable pageable) {
+        return sorted.skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package by.ilyatr.afisha_rest_api.benchmarks.support;
+
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Template over {@link InMemoryRedis}: pipelines run their commands directly and return no results.
+ */
+public class InMemoryStringRedisTemplate extends StringRedisTemplate {
+    private final InMemoryRedis redis;
+    private final ListOperations<String, String> listOps;
+    private final ZSetOperations<String, String> zSetOps;
+    private final ValueOperations<String, String> valueOps;
+
+    public InMemoryStringRedisTemplate(InMemoryRedis redis) {
+        this.redis = redis;
+        this.listOps = redis.listOps();
+        this.zSetOps = redis.zSetOps();
+        this.valueOps = redis.valueOps();
+    }
+
+    @Override
+    public ListOperations<String, String> opsForList() {
+        return listOps;
+    }
+
+    @Override
+    public ZSetOperations<String, String> opsForZSet() {
+        return zSetOps;
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOps;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Object> executePipelined(SessionCallback<?> session) {
+        ((SessionCallback) session).execute(this);
+        return List.of();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        if (script.getScriptAsString().contains("INCRBY")) {
+            return (T) redis.incrementIfExists(keys.getFirst(), Long.parseLong(args[0].toString()));
+        }
+        if (script.getScriptAsString().contains("'DEL'")) {
+            return (T) (Long) (redis.deleteIfEquals(keys.getFirst(), args[0]) ? 1L : 0L);
+        }
+        throw new UnsupportedOperationException("Script is not supported by the stand-in: " + script.getSha1());
+    }
+
+    @Override
+    public Boolean hasKey(String key) {
+        return redis.exists(key);
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return redis.delete(key);
+    }
+
+    @Override
+    public void rename(String oldKey, String newKey) {
+        redis.rename(oldKey, newKey);
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+        return 0L;
+    }
+}
@@ -0,0 +1,146 @@
+package by.ilyatr.afisha_rest_api.benchmarks.support;
+
+import by.ilyatr.afisha_rest_api.cache.CacheBulkLoader;
+import by.ilyatr.afisha_rest_api.cache.CacheInvalidationPublisher;
+import by.ilyatr.afisha_rest_api.cache.CacheLoadCoordinator;
+import by.ilyatr.afisha_rest_api.cache.RedisCacheBulkOperations;
+import by.ilyatr.afisha_rest_api.cache.TwoTierCacheManager;
+import by.ilyatr.afisha_rest_api.configuration.CacheLoadProperties;
+import by.ilyatr.afisha_rest_api.configuration.ExistenceFilterProperties;
+import by.ilyatr.afisha_rest_api.configuration.NearCacheProperties;
+import by.ilyatr.afisha_rest_api.configuration.PopularityProperties;
+import by.ilyatr.afisha_rest_api.configuration.RecentCommentsProperties;
+import by.ilyatr.afisha_rest_api.configuration.RedisConfiguration;
+import by.ilyatr.afisha_rest_api.configuration.SearchProperties;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.entities.User;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapperImpl;
+import by.ilyatr.afisha_rest_api.mapper.EventMapperImpl;
+import by.ilyatr.afisha_rest_api.mapper.HelperMapper;
+import by.ilyatr.afisha_rest_api.metrics.CacheLoadMetrics;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.services.CommentCounter;
+import by.ilyatr.afisha_rest_api.services.CommentService;
+import by.ilyatr.afisha_rest_api.services.EventFilterService;
+import by.ilyatr.afisha_rest_api.services.EventPopularityRanking;
+import by.ilyatr.afisha_rest_api.services.EventService;
+import by.ilyatr.afisha_rest_api.services.EventViewCounter;
+import by.ilyatr.afisha_rest_api.services.ExistenceFilter;
+import by.ilyatr.afisha_rest_api.services.RecentComments;
+import by.ilyatr.afisha_rest_api.services.RedisCounters;
+import by.ilyatr.afisha_rest_api.services.SearchService;
+import by.ilyatr.afisha_rest_api.services.SubscriberCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link EventService} and {@link CommentService} wired like the application context,
+ * with map-backed repositories, an in-memory Redis keyspace and a near cache whose
+ * second tier is a {@link ConcurrentMapCacheManager}.
+ */
+public class ServiceFixture implements AutoCloseable {
+    public static final int EVENTS = 1_000;
+    public static final int COMMENTS_PER_EVENT = 20;
+
+    public final Map<String, Event> events = new HashMap<>();
+    public final Map<String, Comment> comments = new HashMap<>();
+    public final InMemoryRedis redis = new InMemoryRedis();
+    public final InMemoryRedisTemplate redisTemplate = new InMemoryRedisTemplate(redis);
+    public final InMemoryStringRedisTemplate stringRedisTemplate = new InMemoryStringRedisTemplate(redis);
+    public final EventService eventService;
+    public final CommentService commentService;
+
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+    public ServiceFixture() {
+        seed();
+        taskScheduler.setDaemon(true);
+        taskScheduler.initialize();
+
+        EventRepository eventRepository = InMemoryRepositories.events(events);
+        CommentRepository commentRepository = InMemoryRepositories.comments(comments);
+
+        var bulkOperations = new RedisCacheBulkOperations(redisTemplate);
+        var cacheManager = new TwoTierCacheManager(
+                new ConcurrentMapCacheManager(RedisConfiguration.EVENTS_CACHE, RedisConfiguration.COMMENTS_CACHE,
+                        RedisConfiguration.EVENTS_FILTER_CACHE),
+                new NearCacheProperties(),
+                new CacheInvalidationPublisher(stringRedisTemplate, "cache:invalidation"),
+                bulkOperations);
+        var cacheLoadMetrics = new CacheLoadMetrics(new SimpleMeterRegistry());
+        var cacheBulkLoader = new CacheBulkLoader(cacheManager, bulkOperations, cacheLoadMetrics);
+        var popularityProperties = new PopularityProperties();
+        var ranking = new EventPopularityRanking(redisTemplate, eventRepository, popularityProperties);
+        var redisCounters = new RedisCounters(stringRedisTemplate);
+        var commentCounter = new CommentCounter(redisCounters, commentRepository);
+        // Read paths only, the index is never rebuilt here
+        var searchService = new SearchService(eventRepository, commentRepository, null, stringRedisTemplate,
+                new SearchProperties());
+
+        var cacheLoadCoordinator = new CacheLoadCoordinator(cacheManager, stringRedisTemplate, cacheLoadMetrics,
+                bulkOperations, new CacheLoadProperties());
+        // Never built here, so every id might exist and the guard only costs the lookup of a missing filter
+        var recentComments = new RecentComments(redisTemplate, new RecentCommentsProperties());
+        var existenceFilter = new ExistenceFilter(eventRepository, commentRepository, InMemoryRepositories.users(),
+                null, stringRedisTemplate, new ExistenceFilterProperties());
+
+        eventService = new EventService(eventRepository, new EventMapperImpl(), redisTemplate,
+                cacheBulkLoader, new EventViewCounter(ranking, popularityProperties, taskScheduler), ranking,
+                commentCounter, recentComments, redisCounters,
+                new SubscriberCounter(redisCounters, InMemoryRepositories.subscriptions()),
+                new EventFilterService(eventRepository, cacheManager, stringRedisTemplate, cacheLoadMetrics),
+                searchService, cacheLoadCoordinator, existenceFilter);
+        // Read paths only, nothing is published to comment streams
+        commentService = new CommentService(commentRepository, new CommentMapperImpl(),
+                new HelperMapper(InMemoryRepositories.users(), eventRepository), cacheBulkLoader,
+                commentCounter, searchService, cacheLoadCoordinator, existenceFilter, recentComments,
+                null);
+    }
+
+    public static String eventId(int i) {
+        return "event-" + i;
+    }
+
+    private void seed() {
+        Instant start = Instant.parse("2025-12-01T19:00:00Z");
+        User user = User.builder().id("user-1").name("user1").email("user1@example.com").password("password1")
+                .createdAt(start).build();
+        Category[] categories = Category.values();
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = Event.builder()
+                    .id(eventId(i))
+                    .title("Event " + i)
+                    .date(start.plus(i, ChronoUnit.HOURS))
+                    .category(categories[i % categories.length])
+                    .price(BigDecimal.valueOf(10 + i % 90))
+                    .build();
+            events.put(event.getId(), event);
+            for (int j = 0; j < COMMENTS_PER_EVENT; j++) {
+                Comment comment = Comment.builder()
+                        .id(event.getId() + "-comment-" + j)
+                        .user(user)
+                        .event(event)
+                        .text("Comment " + j + " on " + event.getTitle())
+                        .createdAt(event.getDate().plus(j, ChronoUnit.MINUTES))
+                        .updatedAt(event.getDate().plus(j, ChronoUnit.MINUTES))
+                        .build();
+                comments.put(comment.getId(), comment);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        taskScheduler.shutdown();
+    }
+}
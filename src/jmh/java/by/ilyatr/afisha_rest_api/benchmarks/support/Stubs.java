@@ -0,0 +1,28 @@
+package by.ilyatr.afisha_rest_api.benchmarks.support;
+
+import java.lang.reflect.Proxy;
+import java.util.function.BiFunction;
+
+/**
+ * Interface stand-ins backed by a single dispatch function keyed by method name.
+ * Methods the function does not handle should throw {@link UnsupportedOperationException}.
+ */
+final class Stubs {
+    private Stubs() {
+    }
+
+    static <T> T stub(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "toString" -> type.getSimpleName() + " stand-in";
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> handler.apply(method.getName(), args == null ? new Object[0] : args);
+                });
+        return type.cast(proxy);
+    }
+
+    static UnsupportedOperationException unsupported(Class<?> type, String method) {
+        return new UnsupportedOperationException(type.getSimpleName() + "." + method + " is not supported by the stand-in");
+    }
+}
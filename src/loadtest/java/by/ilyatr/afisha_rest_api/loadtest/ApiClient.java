@@ -0,0 +1,71 @@
+package by.ilyatr.afisha_rest_api.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Blocking HTTP calls to the application under test, timed per endpoint.
+ */
+class ApiClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    // Replaced per phase, so the warm-up is not reported
+    private volatile Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    Map<String, EndpointStats> resetStats() {
+        Map<String, EndpointStats> previous = stats;
+        stats = new ConcurrentHashMap<>();
+        return previous;
+    }
+
+    /**
+     * @param endpoint name the request is reported under, e.g. {@code GET /api/v1/events/{id}}
+     * @return the response body, null if the request failed
+     */
+    JsonNode get(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    JsonNode post(String endpoint, String path, Object body) {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(body))));
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder request) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, name -> new EndpointStats());
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            endpointStats.recordFailure();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        boolean success = response.statusCode() / 100 == 2;
+        endpointStats.recordResponse(System.nanoTime() - start, success);
+        return success && response.body().length > 0 ? jsonMapper.readTree(response.body()) : null;
+    }
+}
@@ -0,0 +1,52 @@
+package by.ilyatr.afisha_rest_api.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count of one endpoint, shared by all workers.
+ */
+class EndpointStats {
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+
+    void recordResponse(long nanos, boolean success) {
+        latencyMicros.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    void recordFailure() {
+        errors.increment();
+    }
+
+    /**
+     * @return requests, errors, requests per second and latency percentiles in milliseconds
+     */
+    Map<String, Object> summary(Duration elapsed) {
+        long requests = latencyMicros.getTotalCount();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(latencyMicros.getValueAtPercentile(50)));
+        latency.put("p99", millis(latencyMicros.getValueAtPercentile(99)));
+        latency.put("p999", millis(latencyMicros.getValueAtPercentile(99.9)));
+        latency.put("max", millis(latencyMicros.getMaxValue()));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("errors", errors.sum());
+        summary.put("throughput", Math.round(requests * 10_000.0 / elapsed.toMillis()) / 10.0);
+        summary.put("latencyMillis", latency);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
@@ -0,0 +1,174 @@
+package by.ilyatr.afisha_rest_api.loadtest;
+
+import by.ilyatr.afisha_rest_api.AfishaRestApiApplication;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import com.github.fppt.jedismock.RedisServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Starts the application on H2 and an in-process Redis, seeds users, events and comments through
+ * the API, runs the mixed workload and writes throughput and latency percentiles per endpoint to
+ * {@code loadTest.output} as JSON, so runs on different commits can be diffed.
+ * <p>
+ * Absolute numbers only compare between runs on the same machine: neither stand-in has the
+ * latency or the concurrency of MySQL and Redis. Queries streamed from MySQL read H2 with its
+ * default fetch size, see {@link StreamingH2Driver}; the report lists the stand-ins.
+ *
+ * @see LoadTestConfig
+ */
+public final class LoadTest {
+    private static final Instant EVENTS_FROM = Instant.parse("2026-01-01T19:00:00Z");
+    private static final String[] TEXTS = {
+            "Amazing concert! Can't wait for the next one!",
+            "The sound was too loud in the back rows",
+            "Who is going on Friday?",
+            "Tickets sold out in ten minutes, again"
+    };
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        RedisServer redis = RedisServer.newRedisServer().start();
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(AfishaRestApiApplication.class).run(
+                "--spring.config.additional-location=classpath:/loadtest.yaml",
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getBindPort())) {
+            var client = new ApiClient("http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+            SplittableRandom random = new SplittableRandom(config.getSeed());
+            List<String> userIds = seedUsers(client, config);
+            List<String> eventIds = seedEvents(client, config, random);
+            seedComments(client, config, userIds, eventIds, random);
+
+            var workload = new Workload(client, userIds, eventIds, config);
+            workload.run(config.getWarmup(), config.getSeed());
+            Map<String, EndpointStats> stats = workload.run(config.getDuration(), config.getSeed() + config.getConcurrency());
+            write(config, stats);
+        } finally {
+            redis.stop();
+        }
+    }
+
+    private static List<String> seedUsers(ApiClient client, LoadTestConfig config) throws Exception {
+        return createAll(config.getUsers(), i -> client.post("POST /api/v1/users/create", "/api/v1/users/create",
+                Map.of("name", "user" + i, "email", "user" + i + "@example.com", "password", "password" + i)));
+    }
+
+    private static List<String> seedEvents(ApiClient client, LoadTestConfig config, SplittableRandom random)
+            throws Exception {
+        Category[] categories = Category.values();
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i < config.getEvents(); i++) {
+            events.add(Map.of(
+                    "title", "Event " + i,
+                    "date", EVENTS_FROM.plus(Duration.ofHours(6L * i)).toString(),
+                    "category", categories[random.nextInt(categories.length)].name(),
+                    "price", BigDecimal.valueOf(random.nextInt(1_000, 20_000), 2)));
+        }
+        return createAll(events.size(), i -> client.post("POST /api/v1/events/create", "/api/v1/events/create",
+                events.get(i)));
+    }
+
+    private static void seedComments(ApiClient client, LoadTestConfig config, List<String> userIds,
+                                     List<String> eventIds, SplittableRandom random) throws Exception {
+        List<Map<String, Object>> comments = new ArrayList<>();
+        for (String eventId : eventIds) {
+            for (int i = 0; i < config.getCommentsPerEvent(); i++) {
+                comments.add(comment(userIds.get(random.nextInt(userIds.size())), eventId, random));
+            }
+        }
+        createAll(comments.size(), i -> client.post("POST /api/v1/comments/create", "/api/v1/comments/create",
+                comments.get(i)));
+    }
+
+    static Map<String, Object> comment(String userId, String eventId, SplittableRandom random) {
+        return Map.of("userId", userId, "eventId", eventId, "text", TEXTS[random.nextInt(TEXTS.length)]);
+    }
+
+    // Creates in parallel and returns the ids in creation order
+    private static List<String> createAll(int count, CheckedFunction create) throws Exception {
+        List<Future<JsonNode>> created = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16, Thread.ofVirtual().factory())) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                created.add(executor.submit(() -> create.apply(index)));
+            }
+        }
+        List<String> ids = new ArrayList<>();
+        for (Future<JsonNode> future : created) {
+            JsonNode body = future.get();
+            if (body == null) {
+                throw new IllegalStateException("Seeding failed, see the application log");
+            }
+            ids.add(body.get("id").asString());
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    private static void write(LoadTestConfig config, Map<String, EndpointStats> stats) throws Exception {
+        Map<String, Object> endpoints = new TreeMap<>();
+        stats.forEach((endpoint, endpointStats) -> endpoints.put(endpoint, endpointStats.summary(config.getDuration())));
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("concurrency", config.getConcurrency());
+        settings.put("warmup", config.getWarmup().toString());
+        settings.put("duration", config.getDuration().toString());
+        settings.put("seed", config.getSeed());
+        settings.put("users", config.getUsers());
+        settings.put("events", config.getEvents());
+        settings.put("commentsPerEvent", config.getCommentsPerEvent());
+        settings.put("burstSize", config.getBurstSize());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        config.getMix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+        settings.put("mix", mix);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", settings);
+        Map<String, String> standIns = new LinkedHashMap<>();
+        standIns.put("database", "H2 in MySQL mode, streamed queries read with the default fetch size");
+        standIns.put("redis", "jedis-mock in process");
+        report.put("standIns", standIns);
+        report.put("endpoints", endpoints);
+
+        Files.createDirectories(config.getOutput().toAbsolutePath().getParent());
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build()
+                .writeValue(config.getOutput().toFile(), report);
+
+        System.out.printf("%n%-34s %10s %8s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p99 ms", "p999 ms");
+        endpoints.forEach((endpoint, summary) -> {
+            var values = (Map<?, ?>) summary;
+            var latency = (Map<?, ?>) values.get("latencyMillis");
+            System.out.printf("%-34s %10s %8s %10s %9s %9s %9s%n", endpoint, values.get("requests"),
+                    values.get("errors"), values.get("throughput"), latency.get("p50"), latency.get("p99"),
+                    latency.get("p999"));
+        });
+        System.out.println("Results written to " + config.getOutput());
+    }
+
+    @FunctionalInterface
+    private interface CheckedFunction {
+        JsonNode apply(int index) throws Exception;
+    }
+}
@@ -0,0 +1,76 @@
+package by.ilyatr.afisha_rest_api.loadtest;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties.
+ */
+@Getter
+public class LoadTestConfig {
+    private final int concurrency = intProperty("concurrency", 32);
+    private final Duration warmup = durationProperty("warmup", "10s");
+    private final Duration duration = durationProperty("duration", "30s");
+    // Seeds the data set and the choices of every worker, so runs issue the same requests
+    private final long seed = Long.getLong("loadTest.seed", 42);
+    private final int users = intProperty("users", 100);
+    private final int events = intProperty("events", 200);
+    private final int commentsPerEvent = intProperty("commentsPerEvent", 20);
+    // Comments created back to back on one event by a comment burst
+    private final int burstSize = intProperty("burstSize", 10);
+    // Share of the operations a worker picks, as operation=weight pairs
+    private final Map<Operation, Integer> mix = mix(System.getProperty("loadTest.mix",
+            "popularEvents=15,event=25,firstCommentPage=50,commentBurst=10"));
+    private final Path output = Path.of(System.getProperty("loadTest.output", "build/reports/loadtest/results.json"));
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger("loadTest." + name, defaultValue);
+    }
+
+    private static Duration durationProperty(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty("loadTest." + name, defaultValue));
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String pair : value.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in loadTest.mix, got " + pair);
+            }
+            weights.put(Operation.of(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    public enum Operation {
+        POPULAR_EVENTS("popularEvents"),
+        EVENT("event"),
+        FIRST_COMMENT_PAGE("firstCommentPage"),
+        COMMENT_BURST("commentBurst");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation " + key + " in loadTest.mix");
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+}
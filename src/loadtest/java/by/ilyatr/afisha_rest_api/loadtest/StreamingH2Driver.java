@@ -0,0 +1,97 @@
+package by.ilyatr.afisha_rest_api.loadtest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * H2 driver that takes the fetch size of {@code Integer.MIN_VALUE} the repositories use to make
+ * Connector/J stream rows, and which H2 rejects, as its default fetch size. Without it the
+ * existence filter and search index rebuilds and the exports fail on H2.
+ */
+public class StreamingH2Driver implements Driver {
+    // Loaded through META-INF/services, registered like any driver
+    static {
+        try {
+            DriverManager.registerDriver(new StreamingH2Driver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Driver h2 = new org.h2.Driver();
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        Connection connection = h2.connect(url, info);
+        return connection == null ? null : proxy(Connection.class, connection);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return h2.acceptsURL(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return h2.getPropertyInfo(url, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return h2.getMajorVersion();
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return h2.getMinorVersion();
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return h2.jdbcCompliant();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return h2.getParentLogger();
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> invoke(target, method, args);
+        return type.cast(Proxy.newProxyInstance(StreamingH2Driver.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        if (target instanceof Statement && method.getName().equals("setFetchSize") && (int) args[0] < 0) {
+            args[0] = 0;
+        }
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        return switch (result) {
+            case CallableStatement statement when method.getReturnType() == CallableStatement.class ->
+                    proxy(CallableStatement.class, statement);
+            case PreparedStatement statement when method.getReturnType() == PreparedStatement.class ->
+                    proxy(PreparedStatement.class, statement);
+            case Statement statement when method.getReturnType() == Statement.class ->
+                    proxy(Statement.class, statement);
+            case null, default -> result;
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package by.ilyatr.afisha_rest_api.loadtest;
+
+import by.ilyatr.afisha_rest_api.loadtest.LoadTestConfig.Operation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Workers that each pick operations by the configured mix until the phase ends. Events are
+ * picked with a skew towards the first ones, so a small set of hot events takes most of the
+ * reads and writes, as on the landing pages.
+ */
+class Workload {
+    private final ApiClient client;
+    private final List<String> userIds;
+    private final List<String> eventIds;
+    private final LoadTestConfig config;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    Workload(ApiClient client, List<String> userIds, List<String> eventIds, LoadTestConfig config) {
+        this.client = client;
+        this.userIds = userIds;
+        this.eventIds = eventIds;
+        this.config = config;
+        this.operations = config.getMix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Runs all workers for the given time.
+     *
+     * @return the stats of the requests issued during it by endpoint
+     */
+    Map<String, EndpointStats> run(Duration duration, long seed) throws InterruptedException {
+        client.resetStats();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.getConcurrency(); i++) {
+                SplittableRandom random = new SplittableRandom(seed + i);
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        perform(pick(random), random);
+                    }
+                });
+            }
+        }
+        return client.resetStats();
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void perform(Operation operation, SplittableRandom random) {
+        switch (operation) {
+            case POPULAR_EVENTS -> client.get("GET /api/v1/events/popular", "/api/v1/events/popular");
+            case EVENT -> client.get("GET /api/v1/events/{id}", "/api/v1/events/" + hotEvent(random));
+            case FIRST_COMMENT_PAGE -> client.get("GET /api/v1/comments/event/{id}",
+                    "/api/v1/comments/event/" + hotEvent(random) + "?page=0&size=5");
+            case COMMENT_BURST -> {
+                String eventId = hotEvent(random);
+                for (int i = 0; i < config.getBurstSize(); i++) {
+                    client.post("POST /api/v1/comments/create", "/api/v1/comments/create",
+                            LoadTest.comment(userIds.get(random.nextInt(userIds.size())), eventId, random));
+                }
+            }
+        }
+    }
+
+    // Cubic skew: the first tenth of the events gets almost half of the picks
+    private String hotEvent(SplittableRandom random) {
+        double u = random.nextDouble();
+        return eventIds.get((int) (eventIds.size() * u * u * u));
+    }
+}
@@ -0,0 +1,7 @@
+package by.ilyatr.afisha_rest_api.Exception;
+
+public class CommentQueueFullException extends RuntimeException {
+    public CommentQueueFullException() {
+        super("Too many comments are waiting to be written, retry later");
+    }
+}
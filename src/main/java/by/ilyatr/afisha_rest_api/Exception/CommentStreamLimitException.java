@@ -0,0 +1,7 @@
+package by.ilyatr.afisha_rest_api.Exception;
+
+public class CommentStreamLimitException extends RuntimeException {
+    public CommentStreamLimitException() {
+        super("Too many comment streams are open, retry later");
+    }
+}
@@ -0,0 +1,7 @@
+package by.ilyatr.afisha_rest_api.Exception;
+
+public class InvalidCommentException extends RuntimeException {
+    public InvalidCommentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package by.ilyatr.afisha_rest_api.Exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Invalid page cursor : " + cursor);
+    }
+}
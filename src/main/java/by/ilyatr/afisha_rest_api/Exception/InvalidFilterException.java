@@ -0,0 +1,7 @@
+package by.ilyatr.afisha_rest_api.Exception;
+
+public class InvalidFilterException extends RuntimeException {
+    public InvalidFilterException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,23 @@
 package by.ilyatr.afisha_rest_api.Exception.handler;
 
 import by.ilyatr.afisha_rest_api.Exception.CommentNotFoundException;
+import by.ilyatr.afisha_rest_api.Exception.CommentQueueFullException;
+import by.ilyatr.afisha_rest_api.Exception.CommentStreamLimitException;
 import by.ilyatr.afisha_rest_api.Exception.EventNotFoundException;
+import by.ilyatr.afisha_rest_api.Exception.InvalidCommentException;
+import by.ilyatr.afisha_rest_api.Exception.InvalidCursorException;
+import by.ilyatr.afisha_rest_api.Exception.InvalidFilterException;
 import by.ilyatr.afisha_rest_api.Exception.UserNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.List;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -20,9 +30,9 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(EventNotFoundException.class)
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public Map<String, String> handleEventNotFoundException(EventNotFoundException ex){
-        return Map.of("error", ex.getMessage());
+    public ResponseEntity<Map<String, String>> handleEventNotFoundException(EventNotFoundException ex,
+                                                                            HttpServletRequest request){
+        return error(HttpStatus.NOT_FOUND, ex, request);
     }
 
     @ExceptionHandler(CommentNotFoundException.class)
@@ -30,4 +40,47 @@ public class GlobalExceptionHandler {
     public Map<String, String> handleCommentNotFoundException(CommentNotFoundException ex){
         return Map.of("error", ex.getMessage());
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursorException(InvalidCursorException ex,
+                                                                            HttpServletRequest request){
+        return error(HttpStatus.BAD_REQUEST, ex, request);
+    }
+
+    @ExceptionHandler(InvalidFilterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidFilterException(InvalidFilterException ex){
+        return Map.of("error", ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCommentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidCommentException(InvalidCommentException ex){
+        return Map.of("error", ex.getMessage());
+    }
+
+    @ExceptionHandler(CommentQueueFullException.class)
+    public ResponseEntity<Map<String, String>> handleCommentQueueFullException(CommentQueueFullException ex){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    // No body, the request only accepts text/event-stream
+    @ExceptionHandler(CommentStreamLimitException.class)
+    public ResponseEntity<Void> handleCommentStreamLimitException(CommentStreamLimitException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+    }
+
+    // No body for a comment stream either, it accepts text/event-stream only
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, RuntimeException ex,
+                                                             HttpServletRequest request){
+        List<MediaType> accepted = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+        if (!accepted.isEmpty() && accepted.stream().noneMatch(MediaType.APPLICATION_JSON::isCompatibleWith)) {
+            return ResponseEntity.status(status).build();
+        }
+        return ResponseEntity.status(status).body(Map.of("error", ex.getMessage()));
+    }
 }
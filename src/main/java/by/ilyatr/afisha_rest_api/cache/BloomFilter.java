@@ -0,0 +1,123 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size Bloom filter over strings, safe for concurrent adds and lookups.
+ * <p>
+ * Sized for an expected number of insertions and a target false-positive rate; the rate
+ * degrades once more values than expected are added. Bit positions come from double hashing
+ * of one 64-bit hash of the UTF-16 chars.
+ */
+public class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitSize, int hashFunctions, long expectedInsertions) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitSize + 63) / 64));
+        this.bitSize = (long) words.length() * 64;
+        this.hashFunctions = hashFunctions;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the rate within (0, 1)");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * LN2));
+        return new BloomFilter(Math.max(bits, 64), hashes, expectedInsertions);
+    }
+
+    /**
+     * @return false if every bit was already set, e.g. when the value was added before
+     */
+    public boolean put(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash + i * step, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.weakCompareAndSetVolatile(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+        if (changed) {
+            insertions.increment();
+        }
+        return changed;
+    }
+
+    /**
+     * @return false only if the value was never added
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash + i * step, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isOverfilled() {
+        return insertions.sum() > expectedInsertions;
+    }
+
+    /**
+     * False-positive rate implied by the share of bits set; scans the whole filter.
+     */
+    public double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitSize, hashFunctions);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Values that set at least one new bit, so repeated additions are not counted.
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 mixer to spread the low bits
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
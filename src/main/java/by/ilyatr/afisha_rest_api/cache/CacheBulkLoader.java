@@ -0,0 +1,105 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import by.ilyatr.afisha_rest_api.metrics.CacheLoadMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Resolves a list of ids through the cache with a constant number of round trips:
+ * one multi-get against the cache, one loader call for all misses and one bulk write-back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheBulkLoader {
+    private final CacheManager cacheManager;
+    private final RedisCacheBulkOperations bulkOperations;
+    private final CacheLoadMetrics cacheLoadMetrics;
+
+    /**
+     * @return values in the order of {@code ids}; ids unknown to both the cache and the loader are skipped
+     */
+    public <T> List<T> getAll(String cacheName,
+                              List<String> ids,
+                              Class<T> type,
+                              Function<Collection<String>, ? extends Collection<T>> loader,
+                              Function<T, String> idExtractor) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName), cacheName);
+        Map<Object, Object> found = getAllPresent(cache, ids);
+
+        List<String> missing = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            log.debug("Loading {} of {} {} from db", missing.size(), ids.size(), cacheName);
+            Map<Object, Object> loaded = new LinkedHashMap<>();
+            for (T value : cacheLoadMetrics.recordLoad(cacheName, () -> loader.apply(missing))) {
+                loaded.put(idExtractor.apply(value), value);
+            }
+            putAll(cache, loaded);
+            found.putAll(loaded);
+        }
+
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(type::cast)
+                .toList();
+    }
+
+    /**
+     * Writes the values with one bulk write, keyed by {@code idExtractor}.
+     */
+    public <T> void putAll(String cacheName, Collection<T> values, Function<T, String> idExtractor) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName), cacheName);
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        values.forEach(value -> entries.put(idExtractor.apply(value), value));
+        putAll(cache, entries);
+    }
+
+    private Map<Object, Object> getAllPresent(Cache cache, List<String> ids) {
+        if (cache instanceof TwoTierCache twoTierCache) {
+            return twoTierCache.getAllPresent(ids);
+        }
+        if (cache instanceof RedisCache redisCache) {
+            return new HashMap<>(bulkOperations.getAll(redisCache, ids));
+        }
+        Map<Object, Object> found = new HashMap<>();
+        for (String id : ids) {
+            Cache.ValueWrapper wrapper = cache.get(id);
+            if (wrapper != null && wrapper.get() != null) {
+                found.put(id, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    private void putAll(Cache cache, Map<Object, Object> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.putAll(entries);
+        } else if (cache instanceof RedisCache redisCache) {
+            bulkOperations.putAll(redisCache, entries);
+        } else {
+            entries.forEach(cache::put);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+    private final TwoTierCacheManager cacheManager;
+    private final String nodeId;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8)
+                .split("\\" + CacheInvalidationPublisher.SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = cacheManager.getCache(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CacheInvalidationPublisher.CLEAR_MARKER.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        log.debug("Near cache {} invalidated for key {} by node {}", parts[1], parts[2], parts[0]);
+    }
+}
@@ -0,0 +1,41 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+@Slf4j
+public class CacheInvalidationPublisher {
+    static final String CLEAR_MARKER = "*";
+    static final String SEPARATOR = "|";
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate stringRedisTemplate;
+    @Getter
+    private final String channel;
+
+    public CacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate, String channel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.channel = channel;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(cacheName, String.valueOf(key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, CLEAR_MARKER);
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the near cache TTL
+            log.warn("Could not publish invalidation of {}:{}", cacheName, key, e);
+        }
+    }
+}
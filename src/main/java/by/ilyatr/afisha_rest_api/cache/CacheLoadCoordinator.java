@@ -0,0 +1,334 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import by.ilyatr.afisha_rest_api.configuration.CacheLoadProperties;
+import by.ilyatr.afisha_rest_api.configuration.RedisConfiguration;
+import by.ilyatr.afisha_rest_api.metrics.CacheLoadMetrics;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-through access to a cache that loads each missing key once.
+ * <p>
+ * Concurrent misses for a key on one node wait for a single load. Across nodes, the loading
+ * node holds a short Redis lock and the others poll the cache until the value appears, the lock
+ * is released or {@code lockWait} elapses, whichever comes first. Hot entries are reloaded in the
+ * background shortly before they expire, with the probability rising towards expiry and with the
+ * load time (XFetch); only the node that loaded an entry knows its expiry, so only it refreshes.
+ * A refresh replaces the entry only if it is unchanged since the load started, so it never
+ * overwrites a write or an eviction, and runs on its own small pool rather than the scheduler.
+ */
+@Component
+@Slf4j
+public class CacheLoadCoordinator {
+    private static final String LOCK_PREFIX = "lock:";
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheLoadMetrics cacheLoadMetrics;
+    private final RedisCacheBulkOperations bulkOperations;
+    private final CacheLoadProperties properties;
+    private final ExecutorService refreshExecutor;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<String, LoadedEntry> loadedEntries;
+
+    public CacheLoadCoordinator(CacheManager cacheManager,
+                                StringRedisTemplate stringRedisTemplate,
+                                CacheLoadMetrics cacheLoadMetrics,
+                                RedisCacheBulkOperations bulkOperations,
+                                CacheLoadProperties properties) {
+        this.cacheManager = cacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheLoadMetrics = cacheLoadMetrics;
+        this.bulkOperations = bulkOperations;
+        this.properties = properties;
+        // Bounded: a refresh that cannot be queued is skipped, the entry is loaded on its miss instead
+        this.refreshExecutor = new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getRefreshQueueCapacity()),
+                Thread.ofPlatform().daemon().name("cache-refresh-", 0).factory());
+        this.loadedEntries = Caffeine.newBuilder()
+                .maximumSize(properties.getTrackedEntries())
+                .build();
+    }
+
+    /**
+     * @param loader runs at most once per node for concurrent misses; its exceptions reach every waiting caller
+     */
+    public <T> T get(String cacheName, String key, Class<T> type, Supplier<T> loader) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName), cacheName);
+        T cached = cache.get(key, type);
+        if (cached != null) {
+            if (shouldRefreshEarly(cacheName, key)) {
+                refreshInBackground(cache, key, loader);
+            }
+            return cached;
+        }
+        String flightKey = flightKey(cacheName, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            Object value = await(existing);
+            if (value != null) {
+                cacheLoadMetrics.recordCoalesced(cacheName, "local");
+                return type.cast(value);
+            }
+            // A skipped refresh completes without a value
+            return loadAcrossNodes(cache, key, type, loader);
+        }
+        try {
+            T value = loadAcrossNodes(cache, key, type, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private <T> T loadAcrossNodes(Cache cache, String key, Class<T> type, Supplier<T> loader) {
+        String lockKey = lockKey(cache.getName(), key);
+        String token = UUID.randomUUID().toString();
+        Boolean locked = tryLock(lockKey, token);
+        if (Boolean.FALSE.equals(locked)) {
+            T value = awaitOtherNode(cache, key, type, lockKey);
+            if (value != null) {
+                cacheLoadMetrics.recordCoalesced(cache.getName(), "remote");
+                return value;
+            }
+            log.debug("No value for {} in {} after waiting for the lock holder, loading it", key, cache.getName());
+            return loadAndPut(cache, key, loader);
+        }
+        try {
+            // Filled by another node between our miss and taking the lock
+            T value = cache.get(key, type);
+            return value != null ? value : loadAndPut(cache, key, loader);
+        } finally {
+            if (locked != null) {
+                release(lockKey, token);
+            }
+        }
+    }
+
+    private <T> T loadAndPut(Cache cache, String key, Supplier<T> loader) {
+        long start = System.nanoTime();
+        T value = cacheLoadMetrics.recordLoad(cache.getName(), loader);
+        cache.put(key, value);
+        remember(cache.getName(), key, System.nanoTime() - start);
+        return value;
+    }
+
+    private <T> T awaitOtherNode(Cache cache, String key, Class<T> type, String lockKey) {
+        long deadline = System.nanoTime() + properties.getLockWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(properties.getPollInterval());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            T value = cache.get(key, type);
+            if (value != null) {
+                return value;
+            }
+            // Released without a value: the holder failed, typically because the entity does not exist
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(lockKey))) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean shouldRefreshEarly(String cacheName, String key) {
+        double beta = properties.getEarlyRefreshBeta();
+        if (beta <= 0) {
+            return false;
+        }
+        LoadedEntry entry = loadedEntries.getIfPresent(flightKey(cacheName, key));
+        if (entry == null) {
+            return false;
+        }
+        // 1 - nextDouble() is in (0, 1], so the logarithm is finite and not positive
+        double gap = -entry.loadNanos * beta * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + gap >= entry.expiresAtNanos;
+    }
+
+    private <T> void refreshInBackground(Cache cache, String key, Supplier<T> loader) {
+        String flightKey = flightKey(cache.getName(), key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(flightKey, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(cache, key, loader, flight, flightKey));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(flightKey, flight);
+            flight.complete(null);
+        }
+    }
+
+    private <T> void refresh(Cache cache, String key, Supplier<T> loader,
+                             CompletableFuture<Object> flight, String flightKey) {
+        String lockKey = lockKey(cache.getName(), key);
+        String token = UUID.randomUUID().toString();
+        Boolean locked = tryLock(lockKey, token);
+        try {
+            if (Boolean.FALSE.equals(locked)) {
+                // Another node is loading it already
+                flight.complete(null);
+                return;
+            }
+            Object version = versionOf(cache, key);
+            if (version == null) {
+                // Evicted already, or the cache cannot replace conditionally
+                loadedEntries.invalidate(flightKey);
+                flight.complete(null);
+                return;
+            }
+            long start = System.nanoTime();
+            T value = cacheLoadMetrics.recordLoad(cache.getName(), loader);
+            // Written or evicted while loading: the loaded value may predate it
+            if (!replaceIfUnchanged(cache, key, version, value)) {
+                loadedEntries.invalidate(flightKey);
+                flight.complete(null);
+                return;
+            }
+            remember(cache.getName(), key, System.nanoTime() - start);
+            cacheLoadMetrics.recordEarlyRefresh(cache.getName());
+            flight.complete(value);
+        } catch (RuntimeException | Error e) {
+            log.debug("Early refresh of {} in {} failed", key, cache.getName(), e);
+            loadedEntries.invalidate(flightKey);
+            flight.completeExceptionally(e);
+        } finally {
+            inFlight.remove(flightKey, flight);
+            if (Boolean.TRUE.equals(locked)) {
+                release(lockKey, token);
+            }
+        }
+    }
+
+    /**
+     * @return what the shared tier holds for the key, to compare with before replacing it
+     */
+    private Object versionOf(Cache cache, String key) {
+        Cache shared = sharedTier(cache);
+        if (shared instanceof RedisCache redisCache) {
+            return bulkOperations.getRaw(redisCache, key);
+        }
+        if (shared.getNativeCache() instanceof ConcurrentMap<?, ?> map) {
+            return map.get(key);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean replaceIfUnchanged(Cache cache, String key, Object version, Object value) {
+        Cache shared = sharedTier(cache);
+        boolean replaced = shared instanceof RedisCache redisCache
+                ? bulkOperations.replace(redisCache, key, (byte[]) version, value)
+                : ((ConcurrentMap<Object, Object>) shared.getNativeCache()).replace(key, version, value);
+        if (replaced && cache instanceof TwoTierCache twoTier) {
+            // Reread from the shared tier: a put here could overwrite an eviction that follows the replace
+            twoTier.evictLocal(key);
+        }
+        return replaced;
+    }
+
+    private static Cache sharedTier(Cache cache) {
+        return cache instanceof TwoTierCache twoTier ? twoTier.redisCache() : cache;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void remember(String cacheName, String key, long loadNanos) {
+        long expiresAt = System.nanoTime() + RedisConfiguration.entryTtl(cacheName).toNanos();
+        loadedEntries.put(flightKey(cacheName, key), new LoadedEntry(expiresAt, loadNanos));
+    }
+
+    /**
+     * @return null when Redis is unavailable, in which case the caller loads without the lock
+     */
+    private Boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(
+                    stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, properties.getLockTimeout()));
+        } catch (DataAccessException e) {
+            log.warn("Could not take load lock {}, loading without it", lockKey, e);
+            return null;
+        }
+    }
+
+    private void release(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE, List.of(lockKey), token);
+        } catch (DataAccessException e) {
+            log.warn("Could not release load lock {}, it expires in {}", lockKey, properties.getLockTimeout(), e);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String flightKey(String cacheName, String key) {
+        return cacheName + "::" + key;
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return LOCK_PREFIX + cacheName + "::" + key;
+    }
+
+    private static final class LoadedEntry {
+        private final long expiresAtNanos;
+        private final long loadNanos;
+
+        LoadedEntry(long expiresAtNanos, long loadNanos) {
+            this.expiresAtNanos = expiresAtNanos;
+            this.loadNanos = loadNanos;
+        }
+    }
+}
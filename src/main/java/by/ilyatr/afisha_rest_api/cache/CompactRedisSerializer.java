@@ -0,0 +1,226 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Binary encoding of the cached DTOs and ids.
+ * <p>
+ * Layout: {@code [schema version][type tag][fields...]}, with varint lengths and no field names
+ * or class hints. Values of other types are delegated to the fallback serializer, and so are
+ * entries written by it (JSON always starts with a printable character, the schema version
+ * never does), so a cache can switch formats without being flushed. Entries with an unknown
+ * schema version read as a cache miss.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    static final byte SCHEMA_V1 = 1;
+    private static final byte MAX_SCHEMA = 0x1F;
+
+    private static final byte EVENT = 1;
+    private static final byte COMMENT = 2;
+    private static final byte STRING = 3;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Writer writer = new Writer();
+        writer.out.write(SCHEMA_V1);
+        switch (value) {
+            case EventDto event -> {
+                writer.out.write(EVENT);
+                writer.string(event.getId());
+                writer.string(event.getTitle());
+                writer.instant(event.getDate());
+                writer.string(event.getCategory() != null ? event.getCategory().name() : null);
+                writer.decimal(event.getPrice());
+                writer.nullableLong(event.getCommentCount());
+            }
+            case CommentDto comment -> {
+                writer.out.write(COMMENT);
+                writer.string(comment.getId());
+                writer.string(comment.getUserId());
+                writer.string(comment.getEventId());
+                writer.string(comment.getText());
+                writer.instant(comment.getCreatedAt());
+                writer.instant(comment.getUpdatedAt());
+            }
+            case String string -> {
+                writer.out.write(STRING);
+                writer.out.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+            }
+            default -> {
+                return fallback.serialize(value);
+            }
+        }
+        return writer.out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] > MAX_SCHEMA || bytes[0] < 0) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes[0] != SCHEMA_V1) {
+            return null;
+        }
+        Reader reader = new Reader(bytes);
+        try {
+            return switch (bytes[1]) {
+                case EVENT -> {
+                    String id = reader.string();
+                    String title = reader.string();
+                    Instant date = reader.instant();
+                    String category = reader.string();
+                    yield new EventDto(id, title, date, category != null ? Category.valueOf(category) : null,
+                            reader.decimal(), reader.nullableLong(), null);
+                }
+                case COMMENT -> new CommentDto(reader.string(), reader.string(), reader.string(), reader.string(),
+                        reader.instant(), reader.instant());
+                case STRING -> new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_8);
+                default -> throw new SerializationException("Unknown type tag " + bytes[1]);
+            };
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new SerializationException("Malformed compact entry", e);
+        }
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(96);
+
+        void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        void zigZag(long value) {
+            varLong((value << 1) ^ (value >> 63));
+        }
+
+        // Length + 1, so that 0 encodes null
+        void string(String value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varLong(utf8.length + 1L);
+            out.writeBytes(utf8);
+        }
+
+        void instant(Instant value) {
+            if (value == null) {
+                out.write(0);
+                return;
+            }
+            out.write(1);
+            zigZag(value.getEpochSecond());
+            varLong(value.getNano());
+        }
+
+        void decimal(BigDecimal value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            varLong(unscaled.length + 1L);
+            out.writeBytes(unscaled);
+            zigZag(value.scale());
+        }
+
+        void nullableLong(Long value) {
+            if (value == null) {
+                out.write(0);
+                return;
+            }
+            out.write(1);
+            zigZag(value);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        // Skip schema version and type tag
+        private int position = 2;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long varLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long zigZag() {
+            long raw = varLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String string() {
+            int length = (int) varLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        Instant instant() {
+            if (bytes[position++] == 0) {
+                return null;
+            }
+            long seconds = zigZag();
+            return Instant.ofEpochSecond(seconds, varLong());
+        }
+
+        BigDecimal decimal() {
+            int length = (int) varLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            byte[] unscaled = new byte[length];
+            System.arraycopy(bytes, position, unscaled, 0, length);
+            position += length;
+            return new BigDecimal(new BigInteger(unscaled), (int) zigZag());
+        }
+
+        Long nullableLong() {
+            if (bytes[position++] == 0) {
+                return null;
+            }
+            return zigZag();
+        }
+    }
+}
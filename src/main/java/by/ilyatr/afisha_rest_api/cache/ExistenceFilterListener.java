@@ -0,0 +1,21 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import by.ilyatr.afisha_rest_api.services.ExistenceFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Adds ids created on other nodes to the local existence filters.
+ */
+@RequiredArgsConstructor
+public class ExistenceFilterListener implements MessageListener {
+    private final ExistenceFilter existenceFilter;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        existenceFilter.applyRemote(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key reads and writes against the entries of a {@link RedisCache}:
+ * one MGET for a batch of keys and one pipeline for a batch of puts.
+ * Also reads and compare-and-sets the raw entry of a key, for writes that must not overwrite a newer value.
+ */
+@RequiredArgsConstructor
+public class RedisCacheBulkOperations {
+    private static final byte[] REPLACE = """
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+                return 0
+            end
+            if tonumber(ARGV[3]) > 0 then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            else
+                redis.call('SET', KEYS[1], ARGV[2])
+            end
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public Map<Object, Object> getAll(RedisCache cache, List<?> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] rawKeys = keys.stream()
+                .map(key -> rawKey(cache, key))
+                .toArray(byte[][]::new);
+        List<byte[]> rawValues = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+
+        Map<Object, Object> result = new HashMap<>();
+        if (rawValues == null) {
+            return result;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] rawValue = rawValues.get(i);
+            if (rawValue != null) {
+                result.put(keys.get(i), config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue)));
+            }
+        }
+        return result;
+    }
+
+    public void putAll(RedisCache cache, Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> {
+                Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                byte[] rawValue = ByteUtils.getBytes(config.getValueSerializationPair().write(value));
+                connection.stringCommands().set(rawKey(cache, key), rawValue,
+                        ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+                        RedisStringCommands.SetOption.upsert());
+            });
+            return null;
+        });
+    }
+
+    /**
+     * @return the serialized entry of the key, or null if there is none
+     */
+    public byte[] getRaw(RedisCache cache, Object key) {
+        byte[] rawKey = rawKey(cache, key);
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+    }
+
+    /**
+     * Replaces the entry of the key only if it is still the serialized entry read by {@link #getRaw}.
+     *
+     * @return false if the entry was changed or removed in between
+     */
+    public boolean replace(RedisCache cache, Object key, byte[] expected, Object value) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+        byte[] rawKey = rawKey(cache, key);
+        byte[] rawValue = ByteUtils.getBytes(config.getValueSerializationPair().write(value));
+        byte[] rawTtl = Long.toString(ttl.isNegative() ? 0 : ttl.toMillis()).getBytes(StandardCharsets.UTF_8);
+        Long replaced = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands()
+                .eval(REPLACE, ReturnType.INTEGER, 1, rawKey, expected, rawValue, rawTtl));
+        return replaced != null && replaced == 1;
+    }
+
+    private byte[] rawKey(RedisCache cache, Object key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String cacheKey = config.usePrefix()
+                ? config.getKeyPrefixFor(cache.getName()) + key
+                : String.valueOf(key);
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+}
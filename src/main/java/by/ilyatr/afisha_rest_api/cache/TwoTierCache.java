@@ -0,0 +1,193 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache (L1) in front of a shared Redis cache (L2).
+ * Evictions are applied to both tiers and broadcast to the other nodes.
+ */
+public class TwoTierCache implements Cache {
+    @Getter
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> nearCache;
+    private final Cache redisCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisCacheBulkOperations bulkOperations;
+
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<Object, Object> nearCache,
+                        Cache redisCache,
+                        CacheInvalidationPublisher invalidationPublisher,
+                        RedisCacheBulkOperations bulkOperations) {
+        this.name = name;
+        this.nearCache = nearCache;
+        this.redisCache = redisCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.bulkOperations = bulkOperations;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = nearCache.getIfPresent(key);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            redisMisses.increment();
+            return null;
+        }
+        redisHits.increment();
+        nearCache.put(key, wrapper.get());
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        if (value != null) {
+            nearCache.put(key, value);
+        }
+    }
+
+    /**
+     * Returns the entries present in either tier; near-cache misses are read from Redis
+     * with a single MGET and promoted to the near cache.
+     */
+    public Map<Object, Object> getAllPresent(List<?> keys) {
+        Map<Object, Object> result = new HashMap<>(nearCache.getAllPresent(keys));
+        List<Object> remaining = new ArrayList<>();
+        for (Object key : keys) {
+            if (!result.containsKey(key)) {
+                remaining.add(key);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return result;
+        }
+        Map<Object, Object> fromRedis;
+        if (redisCache instanceof RedisCache cache) {
+            fromRedis = bulkOperations.getAll(cache, remaining);
+        } else {
+            fromRedis = new HashMap<>();
+            for (Object key : remaining) {
+                ValueWrapper wrapper = redisCache.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    fromRedis.put(key, wrapper.get());
+                }
+            }
+        }
+        redisHits.add(fromRedis.size());
+        redisMisses.add(remaining.size() - fromRedis.size());
+        nearCache.putAll(fromRedis);
+        result.putAll(fromRedis);
+        return result;
+    }
+
+    public void putAll(Map<?, ?> entries) {
+        if (redisCache instanceof RedisCache cache) {
+            bulkOperations.putAll(cache, entries);
+        } else {
+            entries.forEach(redisCache::put);
+        }
+        nearCache.putAll(entries);
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        nearCache.invalidate(key);
+        invalidationPublisher.publishEvict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = redisCache.evictIfPresent(key);
+        nearCache.invalidate(key);
+        invalidationPublisher.publishEvict(name, key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        nearCache.invalidateAll();
+        invalidationPublisher.publishClear(name);
+    }
+
+    Cache redisCache() {
+        return redisCache;
+    }
+
+    void evictLocal(Object key) {
+        nearCache.invalidate(key);
+    }
+
+    void clearLocal() {
+        nearCache.invalidateAll();
+    }
+
+    public CacheStats nearStats() {
+        return nearCache.stats();
+    }
+
+    public long nearSize() {
+        return nearCache.estimatedSize();
+    }
+
+    public long redisHits() {
+        return redisHits.sum();
+    }
+
+    public long redisMisses() {
+        return redisMisses.sum();
+    }
+}
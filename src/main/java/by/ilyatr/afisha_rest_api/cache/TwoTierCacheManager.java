@@ -0,0 +1,57 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import by.ilyatr.afisha_rest_api.configuration.NearCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class TwoTierCacheManager implements CacheManager {
+    private final CacheManager redisCacheManager;
+    private final NearCacheProperties properties;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisCacheBulkOperations bulkOperations;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager redisCacheManager,
+                               NearCacheProperties properties,
+                               CacheInvalidationPublisher invalidationPublisher,
+                               RedisCacheBulkOperations bulkOperations) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.invalidationPublisher = invalidationPublisher;
+        this.bulkOperations = bulkOperations;
+    }
+
+    @Override
+    public TwoTierCache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache redisCache = redisCacheManager.getCache(cacheName);
+            if (redisCache == null) {
+                return null;
+            }
+            return new TwoTierCache(cacheName, buildNearCache(), redisCache,
+                    invalidationPublisher, bulkOperations);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    public Collection<TwoTierCache> getCaches() {
+        return caches.values();
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildNearCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hit/miss counters per cache and tier: {@code cache.tier.gets{cache, tier, result}}.
+ */
+@RequiredArgsConstructor
+public class TwoTierCacheMetrics implements MeterBinder {
+    private final TwoTierCacheManager cacheManager;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            TwoTierCache cache = cacheManager.getCache(name);
+            if (cache == null) {
+                continue;
+            }
+            counter(registry, cache, "near", "hit", c -> c.nearStats().hitCount());
+            counter(registry, cache, "near", "miss", c -> c.nearStats().missCount());
+            counter(registry, cache, "redis", "hit", TwoTierCache::redisHits);
+            counter(registry, cache, "redis", "miss", TwoTierCache::redisMisses);
+            Gauge.builder("cache.tier.size", cache, TwoTierCache::nearSize)
+                    .tag("cache", name)
+                    .tag("tier", "near")
+                    .register(registry);
+            FunctionCounter.builder("cache.tier.evictions", cache, c -> c.nearStats().evictionCount())
+                    .tag("cache", name)
+                    .tag("tier", "near")
+                    .register(registry);
+        }
+    }
+
+    private void counter(MeterRegistry registry, TwoTierCache cache, String tier, String result,
+                         ToDoubleFunction<TwoTierCache> f) {
+        FunctionCounter.builder("cache.tier.gets", cache, f)
+                .tag("cache", cache.getName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+}
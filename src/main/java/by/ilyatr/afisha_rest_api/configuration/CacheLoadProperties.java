@@ -0,0 +1,23 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.cache.load")
+public class CacheLoadProperties {
+    // Upper bound on how long one node may hold the load lock of a key
+    private Duration lockTimeout = Duration.ofSeconds(5);
+    // How long other nodes wait for the lock holder before loading themselves
+    private Duration lockWait = Duration.ofSeconds(2);
+    private Duration pollInterval = Duration.ofMillis(20);
+    // Early refresh aggressiveness, 0 disables it
+    private double earlyRefreshBeta = 1.0;
+    // Entries whose load time and expiry are remembered for early refresh
+    private long trackedEntries = 10_000;
+    // Early refreshes run on their own pool, so slow loads do not delay the scheduled jobs
+    private int refreshThreads = 2;
+    private int refreshQueueCapacity = 1000;
+}
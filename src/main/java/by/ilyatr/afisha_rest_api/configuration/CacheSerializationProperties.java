@@ -0,0 +1,26 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.cache.serialization")
+public class CacheSerializationProperties {
+    private Format defaultFormat = Format.JSON;
+    // Per cache name, overrides defaultFormat
+    private Map<String, Format> caches = new HashMap<>();
+    // Values of the shared RedisTemplate: id lists and sorted sets
+    private Format ids = Format.JSON;
+
+    public Format formatOf(String cacheName) {
+        return caches.getOrDefault(cacheName, defaultFormat);
+    }
+
+    public enum Format {
+        JSON,
+        COMPACT
+    }
+}
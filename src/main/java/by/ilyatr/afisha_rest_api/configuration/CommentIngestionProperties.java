@@ -0,0 +1,24 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.comments.ingestion")
+public class CommentIngestionProperties {
+    // Accept new comments with 202 and write them in batches instead of inline
+    private boolean enabled = false;
+    // Comments accepted but not written yet; further ones are rejected with 429
+    private int queueCapacity = 10_000;
+    // Rows per transaction; a multiple of hibernate.jdbc.batch_size keeps every JDBC batch full
+    private int batchSize = 500;
+    // How long the writer waits for a batch to fill up once it holds a comment
+    private Duration maxBatchDelay = Duration.ofMillis(50);
+    // Pause before retrying a batch the database could not take
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    // Retries of a batch before its comments are dropped
+    private int maxRetries = 5;
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,23 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.comments.stream")
+public class CommentStreamProperties {
+    // Followed by the event id
+    private String channelPrefix = "comments:event:";
+    // Open streams per node; further ones are rejected with 503
+    private int maxConnections = 20_000;
+    // Clients reconnect with Last-Event-ID after it
+    private Duration timeout = Duration.ofMinutes(30);
+    // Comment lines that keep idle streams open through proxies and reveal closed ones
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+    // Events a connection may fall behind by before it is closed
+    private int maxPendingEvents = 1_000;
+    // Senders when virtual threads are disabled
+    private int senderThreads = 16;
+}
@@ -0,0 +1,68 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import by.ilyatr.afisha_rest_api.datasource.ReadYourWrites;
+import by.ilyatr.afisha_rest_api.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured pool with a primary and one pool per replica when
+ * {@code afisha.datasource.replicas} is set. Every pool publishes the {@code hikaricp.*} meters
+ * tagged with its own pool name.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "afisha.datasource", name = "replicas[0].url")
+public class DataSourceRoutingConfiguration {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                               DataSourceRoutingProperties properties,
+                                               ReadYourWrites readYourWrites,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               TaskScheduler taskScheduler,
+                                               Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            // Started on first use, so a replica that is down at startup only fails its health check
+            HikariDataSource pool = new HikariDataSource();
+            primary.copyStateTo(pool);
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                pool.setUsername(replica.getUsername());
+                pool.setPassword(replica.getPassword());
+            }
+            if (replica.getMaximumPoolSize() != null) {
+                pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            }
+            pool.setConnectionTimeout(properties.getReplicaConnectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            replicas.add(pool);
+        }
+
+        var dataSource = new ReplicaRoutingDataSource(primary, replicas, readYourWrites);
+        taskScheduler.scheduleWithFixedDelay(dataSource::checkReplicas, properties.getHealthCheckInterval());
+        return dataSource;
+    }
+}
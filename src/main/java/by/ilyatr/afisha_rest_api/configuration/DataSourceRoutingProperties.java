@@ -0,0 +1,30 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.datasource")
+public class DataSourceRoutingProperties {
+    // Read-only transactions are routed to these; without any everything uses spring.datasource
+    private List<Replica> replicas = new ArrayList<>();
+    // Longer than the usual replication lag; zero turns read-your-writes off
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    private String readYourWritesCookie = "afisha-primary-until";
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    // Waiting for a replica connection, after which the read falls back to the primary
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(1);
+
+    @Data
+    public static class Replica {
+        private String url;
+        // Default to the primary's credentials and pool settings
+        private String username;
+        private String password;
+        private Integer maximumPoolSize;
+    }
+}
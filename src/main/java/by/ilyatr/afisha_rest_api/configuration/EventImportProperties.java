@@ -0,0 +1,12 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.events.import")
+public class EventImportProperties {
+    // Rows per transaction; a multiple of hibernate.jdbc.batch_size keeps every JDBC batch full
+    private int chunkSize = 1000;
+    private int maxReportedFailures = 1000;
+}
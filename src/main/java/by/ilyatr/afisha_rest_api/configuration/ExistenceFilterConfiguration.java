@@ -0,0 +1,23 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import by.ilyatr.afisha_rest_api.cache.ExistenceFilterListener;
+import by.ilyatr.afisha_rest_api.services.ExistenceFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class ExistenceFilterConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "afisha.existence-filter", name = "enabled", matchIfMissing = true)
+    public ExistenceFilterListener existenceFilterListener(RedisMessageListenerContainer container,
+                                                           ExistenceFilter existenceFilter,
+                                                           ExistenceFilterProperties properties) {
+        var listener = new ExistenceFilterListener(existenceFilter);
+        container.addMessageListener(listener, new ChannelTopic(properties.getUpdateChannel()));
+        return listener;
+    }
+}
@@ -0,0 +1,22 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.existence-filter")
+public class ExistenceFilterProperties {
+    private boolean enabled = true;
+    private double falsePositiveRate = 0.01;
+    // Room for ids created until the next rebuild, as a share of the current row count
+    private double headroom = 0.5;
+    private long minimumCapacity = 10_000;
+    // Sheds deleted ids and repairs additions missed from other nodes
+    private Duration rebuildInterval = Duration.ofHours(1);
+    private String updateChannel = "ids:created";
+    // Ids created this long before a rebuild's scan, or since, are looked up instead of rejected;
+    // covers the longest transaction plus the replica lag, and messages lost between nodes
+    private Duration recentIdWindow = Duration.ofMinutes(5);
+}
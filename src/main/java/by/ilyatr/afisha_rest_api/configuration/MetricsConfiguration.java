@@ -0,0 +1,21 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.data.redis.autoconfigure.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    // Per-command Redis latency: lettuce.command.completion / lettuce.command.firstresponse{command}
+    @Bean
+    public ClientResourcesBuilderCustomizer lettuceCommandLatencyCustomizer(MeterRegistry meterRegistry) {
+        var options = MicrometerOptions.builder()
+                .histogram(true)
+                .build();
+        return builder -> builder.commandLatencyRecorder(new MicrometerCommandLatencyRecorder(meterRegistry, options));
+    }
+}
@@ -0,0 +1,16 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.cache.near")
+public class NearCacheProperties {
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    // Bounds staleness if an invalidation message from another node is lost
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    private String invalidationChannel = "cache:invalidation";
+}
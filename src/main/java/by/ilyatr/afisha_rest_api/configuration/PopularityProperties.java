@@ -0,0 +1,21 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.popularity")
+public class PopularityProperties {
+    private Duration flushInterval = Duration.ofSeconds(5);
+    // Pending views that trigger a flush before the interval elapses
+    private long flushThreshold = 10_000;
+
+    private Duration bucketDuration = Duration.ofHours(1);
+    private int windowBuckets = 24;
+    // Weight of a bucket is decay^age, the current bucket has age 0
+    private double decay = 0.8;
+    private int topSize = 100;
+    private Duration rebuildInterval = Duration.ofMinutes(1);
+}
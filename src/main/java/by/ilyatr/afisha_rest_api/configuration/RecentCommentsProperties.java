@@ -0,0 +1,15 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.comments.recent")
+public class RecentCommentsProperties {
+    // Newest comments kept per event; first pages up to this size are served from Redis
+    private int capacity = 100;
+    // Bounds drift from a write that committed while its window was being loaded
+    private Duration ttl = Duration.ofDays(1);
+}
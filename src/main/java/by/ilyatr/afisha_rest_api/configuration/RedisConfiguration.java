@@ -1,42 +1,141 @@
 package by.ilyatr.afisha_rest_api.configuration;
 
+import by.ilyatr.afisha_rest_api.cache.CacheInvalidationListener;
+import by.ilyatr.afisha_rest_api.cache.CacheInvalidationPublisher;
+import by.ilyatr.afisha_rest_api.cache.CompactRedisSerializer;
+import by.ilyatr.afisha_rest_api.cache.RedisCacheBulkOperations;
+import by.ilyatr.afisha_rest_api.cache.TwoTierCacheManager;
+import by.ilyatr.afisha_rest_api.cache.TwoTierCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.thread.Threading;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 
 
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 
 @Configuration
 public class RedisConfiguration {
 
+    public static final String EVENTS_CACHE = "events";
+    public static final String COMMENTS_CACHE = "comments";
+    public static final String EVENTS_FILTER_CACHE = "events:filter";
+
+    private static final Duration ENTRY_TTL = Duration.ofHours(2);
+    // Superseded pages are never evicted, only skipped, so they should not linger
+    private static final Duration FILTER_ENTRY_TTL = Duration.ofMinutes(10);
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        var serializer = RedisSerializer.json();
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     NearCacheProperties nearCacheProperties,
+                                     CacheSerializationProperties serializationProperties,
+                                     CacheInvalidationPublisher cacheInvalidationPublisher,
+                                     RedisCacheBulkOperations redisCacheBulkOperations) {
         var config= RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(2))
+                .entryTtl(ENTRY_TTL)
                 .disableCachingNullValues()
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(serializer)
+                        RedisSerializationContext.SerializationPair.fromSerializer(
+                                valueSerializer(serializationProperties.getDefaultFormat()))
                 );
+        Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
+        for (String cacheName : Set.of(EVENTS_CACHE, COMMENTS_CACHE, EVENTS_FILTER_CACHE)) {
+            cacheConfigs.put(cacheName, config.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(
+                            valueSerializer(serializationProperties.formatOf(cacheName)))));
+        }
+        cacheConfigs.computeIfPresent(EVENTS_FILTER_CACHE, (name, cacheConfig) ->
+                cacheConfig.entryTtl(entryTtl(name)));
+
+        var redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config)
+                .withInitialCacheConfigurations(cacheConfigs)
+                .enableStatistics()
+                .build();
+        if (!nearCacheProperties.isEnabled()) {
+            return redisCacheManager;
+        }
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, nearCacheProperties,
+                cacheInvalidationPublisher, redisCacheBulkOperations);
+    }
 
-        return RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+    @Bean
+    public RedisCacheBulkOperations redisCacheBulkOperations(RedisTemplate<String, Object> redisTemplate) {
+        return new RedisCacheBulkOperations(redisTemplate);
+    }
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate,
+                                                                 NearCacheProperties nearCacheProperties) {
+        return new CacheInvalidationPublisher(stringRedisTemplate, nearCacheProperties.getInvalidationChannel());
+    }
+
+    // One container, so one pub/sub connection, for every channel the node listens to
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       Environment environment) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            var executor = new SimpleAsyncTaskExecutor("redis-listener-");
+            executor.setVirtualThreads(true);
+            container.setTaskExecutor(executor);
+        }
+        return container;
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    @ConditionalOnProperty(prefix = "afisha.cache.near", name = "enabled", matchIfMissing = true)
+    public CacheInvalidationListener cacheInvalidationListener(RedisMessageListenerContainer container,
+                                                               CacheManager cacheManager,
+                                                               CacheInvalidationPublisher publisher) {
+        var listener = new CacheInvalidationListener((TwoTierCacheManager) cacheManager, publisher.getNodeId());
+        container.addMessageListener(listener, new ChannelTopic(publisher.getChannel()));
+        return listener;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "afisha.cache.near", name = "enabled", matchIfMissing = true)
+    public TwoTierCacheMetrics twoTierCacheMetrics(CacheManager cacheManager) {
+        return new TwoTierCacheMetrics((TwoTierCacheManager) cacheManager);
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       CacheSerializationProperties serializationProperties) {
         var template = new RedisTemplate<String, Object>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(RedisSerializer.string());
-        template.setValueSerializer(RedisSerializer.json());
+        template.setValueSerializer(valueSerializer(serializationProperties.getIds()));
         return template;
     }
+
+    public static Duration entryTtl(String cacheName) {
+        return EVENTS_FILTER_CACHE.equals(cacheName) ? FILTER_ENTRY_TTL : ENTRY_TTL;
+    }
+
+    public static RedisSerializer<Object> valueSerializer(CacheSerializationProperties.Format format) {
+        return switch (format) {
+            case JSON -> RedisSerializer.json();
+            case COMPACT -> new CompactRedisSerializer(RedisSerializer.json());
+        };
+    }
 }
@@ -0,0 +1,21 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import by.ilyatr.afisha_rest_api.search.SearchUpdateListener;
+import by.ilyatr.afisha_rest_api.services.SearchService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class SearchConfiguration {
+
+    @Bean
+    public SearchUpdateListener searchUpdateListener(RedisMessageListenerContainer container,
+                                                     SearchService searchService,
+                                                     SearchProperties searchProperties) {
+        var listener = new SearchUpdateListener(searchService);
+        container.addMessageListener(listener, new ChannelTopic(searchProperties.getUpdateChannel()));
+        return listener;
+    }
+}
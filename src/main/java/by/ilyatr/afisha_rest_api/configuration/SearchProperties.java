@@ -0,0 +1,17 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.search")
+public class SearchProperties {
+    private Path snapshotPath = Path.of("data/search-index.bin");
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+    // Full rebuild from the database, repairs updates missed from other nodes
+    private Duration rebuildInterval = Duration.ofHours(6);
+    private String updateChannel = "search:updates";
+}
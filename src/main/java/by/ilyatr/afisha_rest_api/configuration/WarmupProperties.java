@@ -0,0 +1,20 @@
+package by.ilyatr.afisha_rest_api.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "afisha.warmup")
+public class WarmupProperties {
+    private boolean enabled = true;
+    // Readiness is reported once warm-up completes or this elapses
+    private Duration timeout = Duration.ofSeconds(30);
+    private int parallelism = 4;
+    // Match the default page sizes of the endpoints
+    private int lastEventsPageSize = 5;
+    private int commentsPageSize = 5;
+    // Popular events whose first comment page is warmed, at most the 10 the popular endpoint shows
+    private int commentPagesOfTopEvents = 10;
+}
@@ -1,21 +1,33 @@
 package by.ilyatr.afisha_rest_api.controllers.rest;
 
 import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
 import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.services.CommentIngestion;
 import by.ilyatr.afisha_rest_api.services.CommentService;
+import by.ilyatr.afisha_rest_api.services.CommentStream;
+import by.ilyatr.afisha_rest_api.services.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/v1/comments")
 @RequiredArgsConstructor
 public class CommentRestControllerV1 {
     private final CommentService commentService;
+    private final ExportService exportService;
+    private final CommentIngestion commentIngestion;
+    private final CommentStream commentStream;
 
     @GetMapping("{id}")
     public CommentDto getComment(@PathVariable String id){
@@ -24,6 +36,9 @@ public class CommentRestControllerV1 {
 
     @PostMapping("create")
     public ResponseEntity<CommentDto> createComment(@RequestBody CommentDto commentDto){
+        if (commentIngestion.isEnabled()) {
+            return ResponseEntity.accepted().body(commentIngestion.enqueue(commentDto));
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(commentService.createComment(commentDto));
     }
 
@@ -43,4 +58,23 @@ public class CommentRestControllerV1 {
         return commentService.getComments(id, pageable);
     }
 
+    @GetMapping(value = "event/{id}", params = "after")
+    public CursorPage<CommentDto> getCommentsByEventId(@PathVariable String id,
+                                                       @RequestParam String after,
+                                                       @RequestParam(defaultValue = "5") int size){
+        return commentService.getComments(id, after, size);
+    }
+
+    @GetMapping(value = "event/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCommentsByEventId(@PathVariable String id,
+                                              @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        return commentStream.open(id, lastEventId);
+    }
+
+    @GetMapping(value = "event/{id}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportCommentsByEventId(@PathVariable String id, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportComments(id, response.getOutputStream());
+    }
+
 }
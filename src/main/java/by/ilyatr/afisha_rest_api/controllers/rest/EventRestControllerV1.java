@@ -1,15 +1,28 @@
 package by.ilyatr.afisha_rest_api.controllers.rest;
 
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
 import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.EventFilter;
+import by.ilyatr.afisha_rest_api.dto.EventImportResult;
+import by.ilyatr.afisha_rest_api.services.EventImportService;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.services.EventFilterService;
 import by.ilyatr.afisha_rest_api.services.EventService;
+import by.ilyatr.afisha_rest_api.services.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -17,6 +30,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EventRestControllerV1 {
     private final EventService eventService;
+    private final EventImportService eventImportService;
+    private final ExportService exportService;
+    private final EventFilterService eventFilterService;
 
     @GetMapping("{id}")
     public EventDto getEvent(@PathVariable String id) {
@@ -30,6 +46,20 @@ public class EventRestControllerV1 {
                 .body(eventService.createEvent(eventDto));
     }
 
+    @PostMapping(value = "import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public EventImportResult importEvents(InputStream body) {
+        return eventImportService.importEvents(body);
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportEvents(@RequestParam(required = false) Category category,
+                             @RequestParam(required = false) Instant from,
+                             @RequestParam(required = false) Instant to,
+                             HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportEvents(category, from, to, response.getOutputStream());
+    }
+
     @DeleteMapping("{id}/delete")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public boolean deleteEvent(@PathVariable String id) {
@@ -51,4 +81,17 @@ public class EventRestControllerV1 {
        return eventService.getLastEvents(pageable);
     }
 
+    @GetMapping("filter")
+    public Page<EventDto> filterEvents(EventFilter filter,
+                                       @PageableDefault(size = 20, sort = "date", direction = Sort.Direction.DESC)
+                                       Pageable pageable) {
+        return eventFilterService.filter(filter, pageable);
+    }
+
+    @GetMapping(value = "last", params = "after")
+    public CursorPage<EventDto> getLastEvents(@RequestParam String after,
+                                              @RequestParam(defaultValue = "5") int size) {
+        return eventService.getLastEvents(after, size);
+    }
+
 }
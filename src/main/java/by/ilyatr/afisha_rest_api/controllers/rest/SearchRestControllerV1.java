@@ -0,0 +1,28 @@
+package by.ilyatr.afisha_rest_api.controllers.rest;
+
+import by.ilyatr.afisha_rest_api.search.SearchResult;
+import by.ilyatr.afisha_rest_api.services.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+public class SearchRestControllerV1 {
+    private final SearchService searchService;
+
+    @GetMapping("events")
+    public Page<SearchResult.Hit> searchEvents(@RequestParam String q,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "20") int size) {
+        return searchService.searchEvents(q, page, size);
+    }
+
+    @GetMapping("comments")
+    public Page<SearchResult.Hit> searchComments(@RequestParam String q,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        return searchService.searchComments(q, page, size);
+    }
+}
@@ -0,0 +1,45 @@
+package by.ilyatr.afisha_rest_api.controllers.rest;
+
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
+import by.ilyatr.afisha_rest_api.dto.SubscriptionDto;
+import by.ilyatr.afisha_rest_api.services.SubscriptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/subscriptions")
+@RequiredArgsConstructor
+public class SubscriptionRestControllerV1 {
+    private final SubscriptionService subscriptionService;
+
+    @PostMapping("user/{userId}/event/{eventId}")
+    public boolean subscribe(@PathVariable String userId, @PathVariable String eventId) {
+        return subscriptionService.subscribe(userId, eventId);
+    }
+
+    @DeleteMapping("user/{userId}/event/{eventId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public boolean unsubscribe(@PathVariable String userId, @PathVariable String eventId) {
+        return subscriptionService.unsubscribe(userId, eventId);
+    }
+
+    @GetMapping("user/{userId}")
+    public CursorPage<SubscriptionDto> getUserSubscriptions(@PathVariable String userId,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        return subscriptionService.getUserSubscriptions(userId, after, size);
+    }
+
+    @GetMapping("event/{eventId}")
+    public CursorPage<SubscriptionDto> getEventSubscribers(@PathVariable String eventId,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        return subscriptionService.getEventSubscribers(eventId, after, size);
+    }
+
+    @GetMapping("event/{eventId}/count")
+    public long countSubscribers(@PathVariable String eventId) {
+        return subscriptionService.countSubscribers(eventId);
+    }
+}
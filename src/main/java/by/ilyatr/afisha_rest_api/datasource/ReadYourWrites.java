@@ -0,0 +1,103 @@
+package by.ilyatr.afisha_rest_api.datasource;
+
+import by.ilyatr.afisha_rest_api.configuration.DataSourceRoutingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Keeps a client's reads on the primary for a short window after its writes, so that it sees
+ * them despite replication lag.
+ * <p>
+ * A committed write pins the rest of its request to the primary and sets a cookie holding the
+ * end of the window; requests that carry the cookie before it ends are pinned as well. The cookie
+ * is set by the client, so a window ending further ahead than one could be issued is ignored. Work
+ * outside of requests, such as scheduled rebuilds, is never pinned.
+ */
+@Component
+@ConditionalOnProperty(prefix = "afisha.datasource", name = "replicas[0].url")
+@RequiredArgsConstructor
+public class ReadYourWrites extends OncePerRequestFilter implements TransactionExecutionListener {
+    private final DataSourceRoutingProperties properties;
+
+    private final ThreadLocal<RequestState> current = new ThreadLocal<>();
+
+    public boolean isPinnedToPrimary() {
+        RequestState state = current.get();
+        return state != null && state.pinned;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (properties.getReadYourWritesWindow().isZero()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long primaryUntil = primaryUntil(request);
+        boolean pinned = now < primaryUntil
+                && primaryUntil <= now + properties.getReadYourWritesWindow().toMillis();
+        current.set(new RequestState(response, pinned));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            current.remove();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        RequestState state = current.get();
+        if (state == null || commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        state.pinned = true;
+        if (!state.response.isCommitted()) {
+            long window = properties.getReadYourWritesWindow().toMillis();
+            Cookie cookie = new Cookie(properties.getReadYourWritesCookie(),
+                    Long.toString(System.currentTimeMillis() + window));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.ceilDiv(window, 1000));
+            state.response.addCookie(cookie);
+        }
+    }
+
+    private long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (properties.getReadYourWritesCookie().equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static final class RequestState {
+        private final HttpServletResponse response;
+        private boolean pinned;
+
+        RequestState(HttpServletResponse response, boolean pinned) {
+            this.response = response;
+            this.pinned = pinned;
+        }
+    }
+}
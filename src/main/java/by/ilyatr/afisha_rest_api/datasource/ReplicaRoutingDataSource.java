@@ -0,0 +1,147 @@
+package by.ilyatr.afisha_rest_api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the connections of read-only transactions to a healthy replica, round robin, and all
+ * others to the primary.
+ * <p>
+ * The physical connection is only taken on the first statement, because a transaction marks its
+ * connection read-only after requesting it. A read goes to the primary instead while no replica
+ * passes its health check, when taking the replica connection fails, and when
+ * {@link ReadYourWrites} pins the request.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    // Why a read-only transaction was given a primary connection
+    public enum PrimaryRead { READ_YOUR_WRITES, FALLBACK }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder readYourWritesReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    ReadYourWrites readYourWrites) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWrites = readYourWrites;
+        setReadOnlyDataSource(new ReadRouter());
+    }
+
+    /**
+     * Validates one connection of every replica; run periodically off the request path.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.pool.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+
+    public HikariDataSource primary() {
+        return primary;
+    }
+
+    public List<HikariDataSource> replicas() {
+        return replicas.stream().map(replica -> replica.pool).toList();
+    }
+
+    public boolean isHealthy(HikariDataSource replica) {
+        return replicas.stream().anyMatch(r -> r.pool == replica && r.healthy);
+    }
+
+    public long reads(HikariDataSource replica) {
+        return replicas.stream().filter(r -> r.pool == replica).mapToLong(r -> r.reads.sum()).sum();
+    }
+
+    public long primaryReads(PrimaryRead reason) {
+        return switch (reason) {
+            case READ_YOUR_WRITES -> readYourWritesReads.sum();
+            case FALLBACK -> fallbackReads.sum();
+        };
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private Connection readConnection() throws SQLException {
+        if (readYourWrites != null && readYourWrites.isPinnedToPrimary()) {
+            readYourWritesReads.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Could not get a connection from replica {}", replica.pool.getPoolName(), e);
+                replica.setHealthy(false);
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+
+    private final class ReadRouter extends AbstractDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readConnection();
+        }
+
+        // The replicas only know their configured users, other credentials are for the primary
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Replica {} is healthy again, routing reads to it", pool.getPoolName());
+                } else {
+                    log.warn("Replica {} is unhealthy, routing its reads elsewhere", pool.getPoolName());
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Cacheable form of a page, the pageable is part of the cache key.
+ */
+@Data
+@AllArgsConstructor
+public class CachedPage<T> {
+    private List<T> content;
+    private long total;
+}
@@ -0,0 +1,23 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A comment change published to the nodes streaming the comments of its event.
+ */
+@Data
+@AllArgsConstructor
+public class CommentStreamMessage {
+    private Type type;
+    private CommentDto comment;
+    private Instant publishedAt;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,32 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    // Opaque token for the next page, null on the last page
+    private String next;
+
+    /**
+     * @param rows up to {@code size + 1} rows; the extra row only signals that a next page exists
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.getLast()).encode());
+    }
+
+    public static int limit(int size) {
+        return Math.clamp(size, 1, MAX_SIZE);
+    }
+}
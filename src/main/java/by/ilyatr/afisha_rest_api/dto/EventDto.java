@@ -3,6 +3,7 @@ package by.ilyatr.afisha_rest_api.dto;
 import by.ilyatr.afisha_rest_api.entities.Category;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.With;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -16,4 +17,9 @@ public class EventDto{
     private Instant date;
     private Category category;
     private BigDecimal price;
+    // Filled from the Redis counters when served, never cached with the event
+    @With
+    private Long commentCount;
+    @With
+    private Long subscriberCount;
 }
@@ -0,0 +1,23 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import by.ilyatr.afisha_rest_api.entities.Category;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Optional criteria of the event filter; null fields do not restrict the result.
+ */
+@Data
+@AllArgsConstructor
+public class EventFilter {
+    private Category category;
+    // Inclusive
+    private Instant from;
+    // Exclusive
+    private Instant to;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,23 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class EventImportResult {
+    private long imported;
+    private long failed;
+    // Capped, failed holds the full count
+    private List<RowFailure> failures = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class RowFailure {
+        // 1-based position of the row in the request body
+        private long row;
+        private String error;
+    }
+}
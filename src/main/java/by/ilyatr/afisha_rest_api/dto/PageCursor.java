@@ -0,0 +1,40 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import by.ilyatr.afisha_rest_api.Exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position (sort timestamp, id) of the last row of a page, encoded as an opaque token.
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+    private static final char SEPARATOR = '|';
+
+    private final Instant timestamp;
+    private final String id;
+
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new PageCursor(Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package by.ilyatr.afisha_rest_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SubscriptionDto {
+    private String userId;
+    private String eventId;
+    private Instant createdAt;
+}
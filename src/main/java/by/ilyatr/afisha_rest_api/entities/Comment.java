@@ -1,7 +1,9 @@
 package by.ilyatr.afisha_rest_api.entities;
 
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Type;
 
 import java.time.Instant;
 
@@ -14,6 +16,7 @@ import java.time.Instant;
 @Builder
 public class Comment {
     @Id
+    @Type(BinaryUuidType.class)
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
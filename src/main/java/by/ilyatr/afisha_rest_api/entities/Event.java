@@ -1,6 +1,8 @@
 package by.ilyatr.afisha_rest_api.entities;
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Type;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -19,6 +21,7 @@ import java.util.Set;
 @Table(name = "events")
 public class Event {
     @Id
+    @Type(BinaryUuidType.class)
     private String id;
     private String title;
     private Instant date;
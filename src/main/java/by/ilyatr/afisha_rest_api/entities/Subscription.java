@@ -0,0 +1,40 @@
+package by.ilyatr.afisha_rest_api.entities;
+
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Type;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Row of the {@code subscriptions} join table, mapped on its own so that a subscription can be
+ * written and paged without loading {@link User#getEvents()}.
+ */
+@Table(name = "subscriptions")
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+public class Subscription {
+    @EmbeddedId
+    private Key id;
+
+    private Instant createdAt;
+
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        @Type(BinaryUuidType.class)
+        private String userId;
+        @Column(name = "event_id")
+        @Type(BinaryUuidType.class)
+        private String eventId;
+    }
+}
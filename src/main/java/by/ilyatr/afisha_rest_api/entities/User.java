@@ -1,7 +1,9 @@
 package by.ilyatr.afisha_rest_api.entities;
 
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Type;
 
 import java.sql.Timestamp;
 import java.time.Instant;
@@ -20,6 +22,7 @@ import java.util.Set;
 @Entity
 public class User {
     @Id
+    @Type(BinaryUuidType.class)
     private String id;
     private String name;
     private String email;
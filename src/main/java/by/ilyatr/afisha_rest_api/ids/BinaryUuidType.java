@@ -0,0 +1,114 @@
+package by.ilyatr.afisha_rest_api.ids;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.usertype.UserType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Maps string ids to {@code BINARY(16)} columns, so the application keeps passing the canonical
+ * UUID text while the keys take 16 bytes.
+ * <p>
+ * A string that is not a canonical UUID, such as a legacy seed id, maps to the name-based UUID of
+ * its text ({@link UUID#nameUUIDFromBytes}), the same mapping the migration applied to existing
+ * rows, so such ids still resolve; any other text simply matches no row.
+ */
+public class BinaryUuidType implements UserType<String> {
+
+    @Override
+    public int getSqlType() {
+        return Types.BINARY;
+    }
+
+    @Override
+    public long getDefaultSqlLength() {
+        return 16;
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public String nullSafeGet(ResultSet rs, int position, WrapperOptions options) throws SQLException {
+        byte[] bytes = rs.getBytes(position);
+        return bytes != null ? fromBytes(bytes) : null;
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, String value, int index, WrapperOptions options) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BINARY);
+        } else {
+            st.setBytes(index, toBytes(value));
+        }
+    }
+
+    @Override
+    public boolean equals(String x, String y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(String x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public String deepCopy(String value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    public static byte[] toBytes(String id) {
+        UUID uuid = isCanonical(id) ? UUID.fromString(id) : UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * @return the id as it reads back from the database
+     */
+    public static String canonical(String id) {
+        return isCanonical(id) && id.equals(id.toLowerCase()) ? id : fromBytes(toBytes(id));
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Expected 16 bytes, got " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    // UUID.fromString also accepts shortened groups such as "1-1-1-1-1"
+    private static boolean isCanonical(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23
+                    ? c == '-'
+                    : Character.digit(c, 16) >= 0 && c < 128;
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package by.ilyatr.afisha_rest_api.ids;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter and 62 random bits.
+ * <p>
+ * Ids from one process are strictly increasing: within a millisecond the counter advances, and
+ * when it overflows the timestamp is borrowed from the next millisecond. New rows therefore land
+ * at the right edge of the primary key instead of at random pages.
+ */
+public final class TimeOrderedUuid {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Timestamp << 12 | counter of the last id
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedUuid() {
+    }
+
+    public static String next() {
+        return nextUuid().toString();
+    }
+
+    /**
+     * @return the creation time in Unix milliseconds of a version 7 id, or -1 for any other id
+     */
+    public static long timestampOf(String id) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        return uuid.version() == 7 ? uuid.getMostSignificantBits() >>> 16 : -1;
+    }
+
+    public static UUID nextUuid() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(now, last + 1));
+        long mostSignificant = (state >>> 12) << 16 | 0x7000L | (state & 0xFFFL);
+        long leastSignificant = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -7,6 +7,11 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring")
 public interface EventMapper {
 
+    // Filled from the Redis counters when served
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "withCommentCount", ignore = true)
+    @Mapping(target = "subscriberCount", ignore = true)
+    @Mapping(target = "withSubscriberCount", ignore = true)
     EventDto toEventDto(Event event);
 
     Event toEvent(EventDto eventDto);
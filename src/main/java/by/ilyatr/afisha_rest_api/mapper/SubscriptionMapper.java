@@ -0,0 +1,13 @@
+package by.ilyatr.afisha_rest_api.mapper;
+
+import by.ilyatr.afisha_rest_api.dto.SubscriptionDto;
+import by.ilyatr.afisha_rest_api.entities.Subscription;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "spring")
+public interface SubscriptionMapper {
+
+    @Mapping(source = "id.userId", target = "userId")
+    @Mapping(source = "id.eventId", target = "eventId")
+    SubscriptionDto toSubscriptionDto(Subscription subscription);
+}
@@ -0,0 +1,45 @@
+package by.ilyatr.afisha_rest_api.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Time spent loading cache misses from the database: {@code cache.load{cache}}, misses served by
+ * another request's load: {@code cache.load.coalesced{cache,scope}}, and background refreshes
+ * of entries close to expiry: {@code cache.refresh{cache}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheLoadMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public <T> T recordLoad(String cacheName, Supplier<T> loader) {
+        return timers.computeIfAbsent(cacheName, this::timer).record(loader);
+    }
+
+    /**
+     * @param scope {@code local} when the load ran on this node, {@code remote} when on another one
+     */
+    public void recordCoalesced(String cacheName, String scope) {
+        meterRegistry.counter("cache.load.coalesced", "cache", cacheName, "scope", scope).increment();
+    }
+
+    public void recordEarlyRefresh(String cacheName) {
+        meterRegistry.counter("cache.refresh", "cache", cacheName).increment();
+    }
+
+    private Timer timer(String cacheName) {
+        return Timer.builder("cache.load")
+                .description("Time to load cache misses from the database")
+                .tag("cache", cacheName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
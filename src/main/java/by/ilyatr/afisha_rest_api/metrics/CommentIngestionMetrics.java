@@ -0,0 +1,54 @@
+package by.ilyatr.afisha_rest_api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched comment ingestion: comments waiting {@code comments.ingestion.queue.size}, time from
+ * acceptance to commit {@code comments.ingestion.lag}, comments written
+ * {@code comments.ingestion.written}, rejected with 429 {@code comments.ingestion.rejected} and
+ * dropped because their user or event no longer exists or their batch kept failing
+ * {@code comments.ingestion.dropped}.
+ */
+@Component
+public class CommentIngestionMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Timer lag;
+    private final Counter written;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    public CommentIngestionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.lag = Timer.builder("comments.ingestion.lag")
+                .description("Time from accepting a comment to committing it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.written = meterRegistry.counter("comments.ingestion.written");
+        this.rejected = meterRegistry.counter("comments.ingestion.rejected");
+        this.dropped = meterRegistry.counter("comments.ingestion.dropped");
+    }
+
+    public void bindQueue(Collection<?> queue) {
+        Gauge.builder("comments.ingestion.queue.size", queue, Collection::size).register(meterRegistry);
+    }
+
+    public void recordWritten(long enqueuedNanos, long committedNanos) {
+        lag.record(committedNanos - enqueuedNanos, TimeUnit.NANOSECONDS);
+        written.increment();
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+}
@@ -0,0 +1,45 @@
+package by.ilyatr.afisha_rest_api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Comment streams: open connections {@code comments.stream.connections}, events with a Redis
+ * subscription {@code comments.stream.subscriptions}, time from publishing a change to sending
+ * it to a client {@code comments.stream.send.lag} and connections closed for falling behind
+ * {@code comments.stream.slow.closed}.
+ */
+@Component
+public class CommentStreamMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Timer sendLag;
+    private final Counter slowClosed;
+
+    public CommentStreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.sendLag = Timer.builder("comments.stream.send.lag")
+                .description("Time from publishing a comment change to sending it to a client")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.slowClosed = meterRegistry.counter("comments.stream.slow.closed");
+    }
+
+    public void bind(Supplier<Number> connections, Supplier<Number> subscriptions) {
+        Gauge.builder("comments.stream.connections", connections).register(meterRegistry);
+        Gauge.builder("comments.stream.subscriptions", subscriptions).register(meterRegistry);
+    }
+
+    public void recordSent(Duration lag) {
+        sendLag.record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    public void recordSlowClosed() {
+        slowClosed.increment();
+    }
+}
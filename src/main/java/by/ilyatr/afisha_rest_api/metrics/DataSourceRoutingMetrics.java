@@ -0,0 +1,43 @@
+package by.ilyatr.afisha_rest_api.metrics;
+
+import by.ilyatr.afisha_rest_api.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read routing across the primary and the replicas: connections handed to read-only transactions
+ * {@code datasource.reads{pool, route}} and replica health {@code datasource.replica.healthy{pool}}.
+ * Pool usage per target comes from the {@code hikaricp.*} meters, tagged with the same pool names.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataSourceRoutingMetrics implements MeterBinder {
+    private final ObjectProvider<ReplicaRoutingDataSource> dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dataSource.ifAvailable(routing -> {
+            for (HikariDataSource replica : routing.replicas()) {
+                Gauge.builder("datasource.replica.healthy", routing, r -> r.isHealthy(replica) ? 1 : 0)
+                        .tag("pool", replica.getPoolName())
+                        .register(registry);
+                FunctionCounter.builder("datasource.reads", routing, r -> r.reads(replica))
+                        .tag("pool", replica.getPoolName())
+                        .tag("route", "replica")
+                        .register(registry);
+            }
+            for (ReplicaRoutingDataSource.PrimaryRead reason : ReplicaRoutingDataSource.PrimaryRead.values()) {
+                FunctionCounter.builder("datasource.reads", routing, r -> r.primaryReads(reason))
+                        .tag("pool", routing.primary().getPoolName())
+                        .tag("route", reason.name().toLowerCase())
+                        .register(registry);
+            }
+        });
+    }
+}
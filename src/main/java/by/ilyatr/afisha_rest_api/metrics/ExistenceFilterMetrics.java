@@ -0,0 +1,46 @@
+package by.ilyatr.afisha_rest_api.metrics;
+
+import by.ilyatr.afisha_rest_api.cache.BloomFilter;
+import by.ilyatr.afisha_rest_api.services.ExistenceFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Existence filters: ids held {@code existence.filter.ids{type}}, false-positive rate implied
+ * by the bits set {@code existence.filter.false.positive.rate{type}} and lookups answered as
+ * not found without Redis or the database {@code existence.filter.rejected{type}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExistenceFilterMetrics implements MeterBinder {
+    private final ExistenceFilter existenceFilter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ExistenceFilter.Type type : ExistenceFilter.Type.values()) {
+            String tag = type.name().toLowerCase();
+            Gauge.builder("existence.filter.ids", existenceFilter, f -> insertions(f.filter(type)))
+                    .tag("type", tag)
+                    .register(registry);
+            Gauge.builder("existence.filter.false.positive.rate", existenceFilter,
+                            f -> falsePositiveRate(f.filter(type)))
+                    .tag("type", tag)
+                    .register(registry);
+            FunctionCounter.builder("existence.filter.rejected", existenceFilter, f -> f.rejected(type))
+                    .tag("type", tag)
+                    .register(registry);
+        }
+    }
+
+    private static double insertions(BloomFilter filter) {
+        return filter != null ? filter.insertions() : Double.NaN;
+    }
+
+    private static double falsePositiveRate(BloomFilter filter) {
+        return filter != null ? filter.estimatedFalsePositiveRate() : Double.NaN;
+    }
+}
@@ -0,0 +1,36 @@
+package by.ilyatr.afisha_rest_api.metrics;
+
+import by.ilyatr.afisha_rest_api.services.SearchService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size of the search indexes: {@code search.index.documents}, {@code search.index.terms}
+ * and {@code search.index.memory{index}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexMetrics implements MeterBinder {
+    private final SearchService searchService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String type : SearchService.types()) {
+            Gauge.builder("search.index.documents", searchService, s -> s.documents(type))
+                    .tag("index", type)
+                    .register(registry);
+            Gauge.builder("search.index.terms", searchService, s -> s.terms(type))
+                    .tag("index", type)
+                    .register(registry);
+            Gauge.builder("search.index.memory", searchService, s -> s.estimatedBytes(type))
+                    .description("Estimated heap retained by the index")
+                    .baseUnit(BaseUnits.BYTES)
+                    .tag("index", type)
+                    .register(registry);
+        }
+    }
+}
@@ -1,23 +1,68 @@
 package by.ilyatr.afisha_rest_api.repositories;
 
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
 import by.ilyatr.afisha_rest_api.entities.Comment;
-import by.ilyatr.afisha_rest_api.entities.User;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CommentRepository extends JpaRepository<Comment, String> {
 
-    Page<Comment> findTop100ByEventIdOrderByUpdatedAtDesc(String eventId, Pageable pageable);
+    // Read paths select DTOs: no managed entities, no dirty-checking snapshots and no user or event join
+    String COMMENT_DTO = "SELECT new by.ilyatr.afisha_rest_api.dto.CommentDto(" +
+                         "c.id, c.user.id, c.event.id, c.text, c.createdAt, c.updatedAt) " +
+                         "FROM Comment c ";
 
+    @Query(COMMENT_DTO + "WHERE c.id = :id")
+    Optional<CommentDto> findDtoById(String id);
 
-    @Query("SELECT DISTINCT c FROM Comment c " +
-           "LEFT JOIN FETCH c.user " +
-           "LEFT JOIN FETCH c.event " +
-           "WHERE c.id = :id")
-    Optional<Comment> findByIdWithUserAndEvent(String id);
+    @Query(COMMENT_DTO + "WHERE c.id IN :ids")
+    List<CommentDto> findDtosByIds(Collection<String> ids);
+
+    @Query(COMMENT_DTO + "WHERE c.event.id = :eventId ORDER BY c.updatedAt DESC")
+    List<CommentDto> findDtosByEventId(String eventId, Pageable pageable);
+
+    @Query(COMMENT_DTO + "WHERE c.event.id = :eventId ORDER BY c.updatedAt DESC, c.id DESC")
+    List<CommentDto> findDtosByEventId(String eventId, Limit limit);
+
+    @Query(COMMENT_DTO +
+           "WHERE c.event.id = :eventId " +
+           "AND (c.updatedAt < :updatedAt OR (c.updatedAt = :updatedAt AND c.id < :id)) " +
+           "ORDER BY c.updatedAt DESC, c.id DESC")
+    List<CommentDto> findDtosByEventIdAfter(String eventId, Instant updatedAt, String id, Limit limit);
+
+    long countByEventId(String eventId);
+
+    @Query("SELECT c.event.id, COUNT(c) FROM Comment c " +
+           "WHERE c.event.id IN :eventIds " +
+           "GROUP BY c.event.id")
+    List<Object[]> countByEventIds(Collection<String> eventIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Comment c " +
+           "WHERE c.event.id = :eventId " +
+           "ORDER BY c.updatedAt DESC, c.id DESC")
+    Stream<Comment> streamAllByEventId(String eventId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE))
+    @Query("SELECT c.id, c.text FROM Comment c")
+    Stream<Object[]> streamTexts();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE))
+    @Query("SELECT c.id FROM Comment c")
+    Stream<String> streamIds();
 
 }
@@ -0,0 +1,14 @@
+package by.ilyatr.afisha_rest_api.repositories;
+
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.EventFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface EventFilterRepository {
+
+    /**
+     * Selects only the event columns into {@link EventDto}, with a predicate per non-null criterion.
+     */
+    Page<EventDto> filter(EventFilter filter, Pageable pageable);
+}
@@ -0,0 +1,77 @@
+package by.ilyatr.afisha_rest_api.repositories;
+
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.EventFilter;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class EventFilterRepositoryImpl implements EventFilterRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<EventDto> filter(EventFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventDto> query = cb.createQuery(EventDto.class);
+        Root<Event> event = query.from(Event.class);
+        query.select(cb.construct(EventDto.class,
+                        event.get("id"),
+                        event.get("title"),
+                        event.get("date"),
+                        event.get("category"),
+                        event.get("price"),
+                        cb.nullLiteral(Long.class),
+                        cb.nullLiteral(Long.class)))
+                .where(predicates(cb, event, filter))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), event, cb));
+
+        List<EventDto> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // Skips the count when the page itself shows the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    private long count(EventFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Event> event = query.from(Event.class);
+        query.select(cb.count(event)).where(predicates(cb, event, filter));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Event> event, EventFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(event.get("category"), filter.getCategory()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(event.<Instant>get("date"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(event.<Instant>get("date"), filter.getTo()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(event.<BigDecimal>get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(event.<BigDecimal>get("price"), filter.getMaxPrice()));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+}
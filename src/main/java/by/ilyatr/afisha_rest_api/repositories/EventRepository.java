@@ -1,18 +1,66 @@
 package by.ilyatr.afisha_rest_api.repositories;
 
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.entities.Category;
 import by.ilyatr.afisha_rest_api.entities.Event;
-import by.ilyatr.afisha_rest_api.entities.User;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EventRepository extends JpaRepository<Event, String> {
+public interface EventRepository extends JpaRepository<Event, String>, EventFilterRepository {
 
-    Page<Event> findAllByOrderByDateDesc(Pageable pageable);
+    // Read paths select DTOs: no managed entities, no dirty-checking snapshots, only the columns shown
+    // The counts are filled by the service
+    String EVENT_DTO = "SELECT new by.ilyatr.afisha_rest_api.dto.EventDto(" +
+                       "e.id, e.title, e.date, e.category, e.price, CAST(NULL AS Long), CAST(NULL AS Long)) " +
+                       "FROM Event e ";
 
-    List<Event> findTop10ByOrderByDateDesc();
+    @Query(EVENT_DTO + "WHERE e.id = :id")
+    Optional<EventDto> findDtoById(String id);
+
+    @Query(EVENT_DTO + "WHERE e.id IN :ids")
+    List<EventDto> findDtosByIds(Collection<String> ids);
+
+    @Query(EVENT_DTO + "ORDER BY e.date DESC")
+    List<EventDto> findDtosByDateDesc(Pageable pageable);
+
+    @Query(EVENT_DTO + "ORDER BY e.date DESC, e.id DESC")
+    List<EventDto> findDtosByDateDescIdDesc(Limit limit);
+
+    @Query(EVENT_DTO +
+           "WHERE e.date < :date OR (e.date = :date AND e.id < :id) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<EventDto> findDtosAfter(Instant date, String id, Limit limit);
+
+    @Query("SELECT e.id FROM Event e WHERE e.id IN :ids")
+    List<String> findIdsByIds(Collection<String> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Event e " +
+           "WHERE (:category IS NULL OR e.category = :category) " +
+           "AND (:from IS NULL OR e.date >= :from) " +
+           "AND (:to IS NULL OR e.date < :to) " +
+           "ORDER BY e.date, e.id")
+    Stream<Event> streamAll(Category category, Instant from, Instant to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE))
+    @Query("SELECT e.id, e.title FROM Event e")
+    Stream<Object[]> streamTitles();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE))
+    @Query("SELECT e.id FROM Event e")
+    Stream<String> streamIds();
 }
@@ -0,0 +1,12 @@
+package by.ilyatr.afisha_rest_api.repositories;
+
+/**
+ * Query hints of the queries read as a stream.
+ */
+final class Streaming {
+    // Connector/J streams rows one by one only for a fetch size of Integer.MIN_VALUE
+    static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private Streaming() {
+    }
+}
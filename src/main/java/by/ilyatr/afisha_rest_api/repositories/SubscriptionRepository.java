@@ -0,0 +1,59 @@
+package by.ilyatr.afisha_rest_api.repositories;
+
+import by.ilyatr.afisha_rest_api.entities.Subscription;
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SubscriptionRepository extends JpaRepository<Subscription, Subscription.Key> {
+
+    /**
+     * @return 1 if the row was inserted, 0 if it exists or the user or event does not
+     */
+    default int insertIgnore(String userId, String eventId, Instant createdAt) {
+        return insertIgnore(BinaryUuidType.toBytes(userId), BinaryUuidType.toBytes(eventId), createdAt);
+    }
+
+    // Native parameters do not go through the entity's id type
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO subscriptions(user_id, event_id, created_at) " +
+                   "VALUES (:userId, :eventId, :createdAt)", nativeQuery = true)
+    int insertIgnore(byte[] userId, byte[] eventId, Instant createdAt);
+
+    @Modifying
+    @Query("DELETE FROM Subscription s WHERE s.id.userId = :userId AND s.id.eventId = :eventId")
+    int delete(String userId, String eventId);
+
+    @Query("SELECT COUNT(s) FROM Subscription s WHERE s.id.eventId = :eventId")
+    long countByEventId(String eventId);
+
+    @Query("SELECT s.id.eventId FROM Subscription s WHERE s.id.userId = :userId")
+    List<String> findEventIdsByUserId(String userId);
+
+    @Query("SELECT s FROM Subscription s " +
+           "WHERE s.id.userId = :userId " +
+           "ORDER BY s.createdAt DESC, s.id.eventId DESC")
+    List<Subscription> findAllByUserId(String userId, Limit limit);
+
+    @Query("SELECT s FROM Subscription s " +
+           "WHERE s.id.userId = :userId " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id.eventId < :eventId)) " +
+           "ORDER BY s.createdAt DESC, s.id.eventId DESC")
+    List<Subscription> findAllByUserIdAfter(String userId, Instant createdAt, String eventId, Limit limit);
+
+    @Query("SELECT s FROM Subscription s " +
+           "WHERE s.id.eventId = :eventId " +
+           "ORDER BY s.createdAt DESC, s.id.userId DESC")
+    List<Subscription> findAllByEventId(String eventId, Limit limit);
+
+    @Query("SELECT s FROM Subscription s " +
+           "WHERE s.id.eventId = :eventId " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id.userId < :userId)) " +
+           "ORDER BY s.createdAt DESC, s.id.userId DESC")
+    List<Subscription> findAllByEventIdAfter(String eventId, Instant createdAt, String userId, Limit limit);
+}
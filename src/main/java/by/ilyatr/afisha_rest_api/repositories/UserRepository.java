@@ -1,12 +1,24 @@
 package by.ilyatr.afisha_rest_api.repositories;
 
+import by.ilyatr.afisha_rest_api.dto.UserDto;
 import by.ilyatr.afisha_rest_api.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, String> {
 
+    // The password is never read back
+    @Query("SELECT new by.ilyatr.afisha_rest_api.dto.UserDto(u.id, u.name, u.email, cast(null as String), u.createdAt) " +
+           "FROM User u WHERE u.id = :id")
+    Optional<UserDto> findDtoById(String id);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Streaming.FETCH_SIZE))
+    @Query("SELECT u.id FROM User u")
+    Stream<String> streamIds();
 }
@@ -0,0 +1,379 @@
+package by.ilyatr.afisha_rest_api.search;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over short texts keyed by an external id, ranked with BM25.
+ * <p>
+ * Documents get increasing internal numbers, so postings stay sorted by appending. Updates add a
+ * new document and tombstone the old one; postings are compacted once tombstones reach a quarter
+ * of the index. Every query token also matches as a prefix, exact matches weigh more.
+ */
+public class InvertedIndex {
+    private static final int MAGIC = 0x41465349;
+    private static final int FORMAT_VERSION = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final int COMPACTION_MIN_TOMBSTONES = 1024;
+    // Terms a query token may expand to, in term order
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Integer> docByExternalId = new HashMap<>();
+    private String[] externalIds = new String[1024];
+    private int[] lengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveDocs;
+    private long totalLength;
+    private long modifications;
+
+    public void put(String externalId, String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            removeLocked(externalId);
+            int doc = docCount++;
+            if (doc == externalIds.length) {
+                externalIds = Arrays.copyOf(externalIds, doc * 2);
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            externalIds[doc] = externalId;
+            lengths[doc] = tokens.size();
+            docByExternalId.put(externalId, doc);
+            frequencies.forEach((term, frequency) -> terms.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+            liveDocs++;
+            totalLength += tokens.size();
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String externalId) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(externalId);
+            if (removed) {
+                modifications++;
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String externalId) {
+        Integer doc = docByExternalId.remove(externalId);
+        if (doc == null) {
+            return false;
+        }
+        deleted.set(doc);
+        externalIds[doc] = null;
+        liveDocs--;
+        totalLength -= lengths[doc];
+        int tombstones = docCount - liveDocs;
+        if (tombstones >= COMPACTION_MIN_TOMBSTONES && tombstones * 4 >= docCount) {
+            compactLocked();
+        }
+        return true;
+    }
+
+    /**
+     * @return documents containing every query token, or a term it prefixes, ranked by BM25
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty() || limit <= 0) {
+            return SearchResult.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return SearchResult.empty();
+            }
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = score(token, scores);
+                if (tokenScores.isEmpty()) {
+                    return SearchResult.empty();
+                }
+                if (scores != null) {
+                    Map<Integer, Float> previous = scores;
+                    tokenScores.replaceAll((doc, score) -> score + previous.get(doc));
+                }
+                scores = tokenScores;
+            }
+            return top(scores, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param candidates documents matched by the previous tokens, null for the first token
+     */
+    private Map<Integer, Float> score(String token, Map<Integer, Float> candidates) {
+        float averageLength = (float) totalLength / liveDocs;
+        Map<Integer, Float> scores = new HashMap<>();
+        NavigableMap<String, Postings> matches = terms.subMap(token, true, token + Character.MAX_VALUE, false);
+        int expansions = 0;
+        for (Map.Entry<String, Postings> match : matches.entrySet()) {
+            if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Postings postings = match.getValue();
+            float weight = match.getKey().length() == token.length() ? 1f : PREFIX_WEIGHT;
+            // Tombstones still count until compaction, so the frequency is capped to keep idf positive
+            int documentFrequency = Math.min(postings.size, liveDocs);
+            float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (deleted.get(doc) || (candidates != null && !candidates.containsKey(doc))) {
+                    continue;
+                }
+                int frequency = postings.frequencies[i];
+                float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                scores.merge(doc, weight * idf * frequency * (K1 + 1) / (frequency + norm), Float::sum);
+            }
+        }
+        return scores;
+    }
+
+    private SearchResult top(Map<Integer, Float> scores, int offset, int limit) {
+        Comparator<Map.Entry<Integer, Float>> byScore = Map.Entry.<Integer, Float>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        int window = offset + limit;
+        PriorityQueue<Map.Entry<Integer, Float>> best = new PriorityQueue<>(Math.min(window, scores.size()) + 1, byScore);
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > window) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(best);
+        ranked.sort(byScore.reversed());
+        List<SearchResult.Hit> hits = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            hits.add(new SearchResult.Hit(externalIds[ranked.get(i).getKey()], ranked.get(i).getValue()));
+        }
+        return new SearchResult(scores.size(), hits);
+    }
+
+    private void compactLocked() {
+        if (deleted.isEmpty()) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = next;
+                externalIds[next] = externalIds[doc];
+                lengths[next] = lengths[doc];
+                docByExternalId.put(externalIds[next], next);
+                next++;
+            }
+        }
+        Arrays.fill(externalIds, next, docCount, null);
+        terms.values().removeIf(postings -> postings.compact(remap) == 0);
+        deleted.clear();
+        docCount = next;
+    }
+
+    public long modifications() {
+        lock.readLock().lock();
+        try {
+            return modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough retained heap size: object headers, arrays and map entries on a 64-bit JVM
+     * with compressed oops, strings counted as Latin-1.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L + 4L * externalIds.length + 16L + 4L * lengths.length + deleted.size() / 8;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (externalIds[doc] != null) {
+                    // String + its array + HashMap node and boxed value
+                    bytes += 24 + 16 + externalIds[doc].length() + 32 + 16;
+                }
+            }
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                // TreeMap entry + term string + postings with two arrays
+                bytes += 40 + 24 + 16 + entry.getKey().length() + 24 + 2 * (16L + 4L * entry.getValue().docs.length);
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes live documents only; the index is compacted first.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                writeString(out, externalIds[doc]);
+                out.writeInt(lengths[doc]);
+            }
+            out.writeInt(terms.size());
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                Postings postings = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeInt(postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    out.writeInt(postings.docs[i]);
+                    out.writeInt(postings.frequencies[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo}, typically from a memory-mapped snapshot.
+     */
+    public static InvertedIndex readFrom(ByteBuffer in) {
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+            throw new IllegalStateException("Not a search index snapshot of format " + FORMAT_VERSION);
+        }
+        InvertedIndex index = new InvertedIndex();
+        int docCount = in.getInt();
+        index.externalIds = new String[Math.max(docCount, 1024)];
+        index.lengths = new int[index.externalIds.length];
+        for (int doc = 0; doc < docCount; doc++) {
+            index.externalIds[doc] = readString(in);
+            index.lengths[doc] = in.getInt();
+            index.docByExternalId.put(index.externalIds[doc], doc);
+            index.totalLength += index.lengths[doc];
+        }
+        index.docCount = docCount;
+        index.liveDocs = docCount;
+        int termCount = in.getInt();
+        for (int t = 0; t < termCount; t++) {
+            String term = readString(in);
+            int size = in.getInt();
+            Postings postings = new Postings(size);
+            for (int i = 0; i < size; i++) {
+                postings.add(in.getInt(), in.getInt());
+            }
+            index.terms.put(term, postings);
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Postings {
+        private int[] docs;
+        private int[] frequencies;
+        private int size;
+
+        Postings() {
+            this(2);
+        }
+
+        Postings(int capacity) {
+            docs = new int[Math.max(capacity, 1)];
+            frequencies = new int[docs.length];
+        }
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+                frequencies = Arrays.copyOf(frequencies, docs.length);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * @return remaining size
+         */
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (kept < docs.length / 2) {
+                docs = Arrays.copyOf(docs, Math.max(kept, 1));
+                frequencies = Arrays.copyOf(frequencies, docs.length);
+            }
+            return kept;
+        }
+    }
+}
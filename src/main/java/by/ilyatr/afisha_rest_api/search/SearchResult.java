@@ -0,0 +1,26 @@
+package by.ilyatr.afisha_rest_api.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SearchResult {
+    // Number of matching documents
+    private long total;
+    // The requested window of matches, best first
+    private List<Hit> hits;
+
+    @Data
+    @AllArgsConstructor
+    public static class Hit {
+        private String id;
+        private float score;
+    }
+
+    static SearchResult empty() {
+        return new SearchResult(0, List.of());
+    }
+}
@@ -0,0 +1,21 @@
+package by.ilyatr.afisha_rest_api.search;
+
+import by.ilyatr.afisha_rest_api.services.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies index updates published by other nodes.
+ */
+@RequiredArgsConstructor
+public class SearchUpdateListener implements MessageListener {
+    private final SearchService searchService;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        searchService.applyRemote(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,36 @@
+package by.ilyatr.afisha_rest_api.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lower-cased runs of letters and digits, in any script.
+ */
+public final class Tokenizer {
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 40;
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_LENGTH) {
+                    tokens.add(text.substring(start, Math.min(i, start + MAX_LENGTH)).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,28 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers side effects that must not be visible before the data they describe.
+ */
+final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or right away outside a transaction.
+     */
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
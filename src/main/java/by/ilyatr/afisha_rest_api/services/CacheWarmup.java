@@ -0,0 +1,98 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.WarmupProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the caches behind the landing pages once the application is ready: the popular events,
+ * the first page of last events and the first comment page of the top popular events, loaded
+ * in parallel with bulk queries and bulk cache writes.
+ * <p>
+ * Reported as out of service, and so keeps the readiness group down, until warm-up completes,
+ * fails or times out.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmup implements HealthIndicator {
+    private enum State { RUNNING, DONE, TIMED_OUT, FAILED, DISABLED }
+
+    private final EventService eventService;
+    private final CommentService commentService;
+    private final WarmupProperties properties;
+    private final Environment environment;
+
+    private volatile State state = State.RUNNING;
+    private volatile long durationMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            state = State.DISABLED;
+            return;
+        }
+        var executor = new SimpleAsyncTaskExecutor("cache-warmup-");
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setConcurrencyLimit(properties.getParallelism());
+        // Submits the tasks that depend on others: a warm-up thread submitting them would wait for
+        // a permit while holding one, which never frees up at a parallelism of 1
+        var submitter = new SimpleAsyncTaskExecutor("cache-warmup-submit-");
+        submitter.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        long start = System.nanoTime();
+
+        CompletableFuture<Void> popular = CompletableFuture
+                .supplyAsync(eventService::warmPopularEvents, executor)
+                .thenComposeAsync(ids -> warmCommentPages(ids, executor), submitter);
+        CompletableFuture<Void> lastEvents = CompletableFuture
+                .runAsync(() -> eventService.warmLastEvents(properties.getLastEventsPageSize()), executor);
+
+        CompletableFuture.allOf(popular, lastEvents)
+                .orTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, e) -> {
+                    durationMillis = (System.nanoTime() - start) / 1_000_000;
+                    if (e == null) {
+                        state = State.DONE;
+                        log.info("Caches warmed up in {} ms", durationMillis);
+                    } else if (e instanceof TimeoutException) {
+                        state = State.TIMED_OUT;
+                        log.warn("Cache warm-up did not finish in {}, accepting traffic anyway", properties.getTimeout());
+                    } else {
+                        state = State.FAILED;
+                        log.warn("Cache warm-up failed after {} ms, accepting traffic anyway", durationMillis, e);
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> warmCommentPages(List<String> eventIds, SimpleAsyncTaskExecutor executor) {
+        return CompletableFuture.allOf(eventIds.stream()
+                .limit(properties.getCommentPagesOfTopEvents())
+                .map(id -> CompletableFuture.runAsync(
+                        () -> commentService.warmFirstPage(id, properties.getCommentsPageSize()), executor))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public Health health() {
+        State current = state;
+        Health.Builder builder = current == State.RUNNING ? Health.outOfService() : Health.up();
+        builder.withDetail("state", current.name().toLowerCase());
+        if (current != State.RUNNING && current != State.DISABLED) {
+            builder.withDetail("durationMillis", durationMillis);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,87 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapper;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts a batch of accepted comments in its own transaction.
+ * <p>
+ * Users and events are referenced by proxy instead of loaded, so the batch runs no selects; a
+ * missing one surfaces as a foreign key violation on flush, translated like in any repository.
+ * After commit the comments are indexed, the recent comments and counters of all affected
+ * events are updated in one pipeline and the new comments are published to their streams in
+ * another.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CommentBatchWriter {
+    private final EntityManager entityManager;
+    private final CommentMapper commentMapper;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CommentCounter commentCounter;
+    private final RecentComments recentComments;
+    private final CommentStreamPublisher commentStreamPublisher;
+    private final SearchService searchService;
+    private final ExistenceFilter existenceFilter;
+
+    @Transactional
+    public void insert(List<CommentDto> comments) {
+        Map<String, List<CommentDto>> byEvent = new LinkedHashMap<>();
+        for (CommentDto commentDto : comments) {
+            Comment comment = commentMapper.toComment(commentDto);
+            comment.setUser(userRepository.getReferenceById(commentDto.getUserId()));
+            comment.setEvent(eventRepository.getReferenceById(commentDto.getEventId()));
+            entityManager.persist(comment);
+            byEvent.computeIfAbsent(commentDto.getEventId(), id -> new ArrayList<>()).add(commentDto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Both wait for the commit themselves
+        existenceFilter.addAll(ExistenceFilter.Type.COMMENT, comments.stream().map(CommentDto::getId).toList());
+        comments.forEach(commentDto -> searchService.indexComment(commentDto.getId(), commentDto.getText()));
+        AfterCommit.run(() -> {
+            cacheIds(byEvent);
+            commentStreamPublisher.publishCreated(comments);
+        });
+    }
+
+    private void cacheIds(Map<String, List<CommentDto>> byEvent) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    var ops = (RedisOperations<String, Object>) operations;
+                    byEvent.forEach((eventId, eventComments) -> {
+                        recentComments.add(ops, eventId, eventComments);
+                        commentCounter.add(ops, eventId, eventComments.size());
+                    });
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            // The comments are stored; the first pages of these events are only missing them until reloaded
+            log.warn("Could not add the ids of comments on {} events to Redis", byEvent.size(), e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-event comment counts maintained in Redis by the comment write paths.
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentCounter {
+    private final RedisCounters redisCounters;
+    private final CommentRepository commentRepository;
+
+    private static String key(String eventId) {
+        return "event:" + eventId + ":comments:count";
+    }
+
+    public long count(String eventId) {
+        return redisCounters.get(key(eventId), key -> commentRepository.countByEventId(eventId));
+    }
+
+    /**
+     * @return comment count by event id
+     */
+    public Map<String, Long> counts(List<String> eventIds) {
+        Map<String, String> eventIdByKey = new HashMap<>();
+        eventIds.forEach(eventId -> eventIdByKey.put(key(eventId), eventId));
+
+        Map<String, Long> byKey = redisCounters.getAll(List.copyOf(eventIdByKey.keySet()), missing -> {
+            Map<String, Long> loaded = new HashMap<>();
+            for (Object[] row : commentRepository.countByEventIds(missing.stream().map(eventIdByKey::get).toList())) {
+                loaded.put(key((String) row[0]), (Long) row[1]);
+            }
+            return loaded;
+        });
+
+        Map<String, Long> byEventId = new HashMap<>();
+        byKey.forEach((key, count) -> byEventId.put(eventIdByKey.get(key), count));
+        return byEventId;
+    }
+
+    public void increment(String eventId) {
+        redisCounters.increment(key(eventId));
+    }
+
+    /**
+     * Adds to the counter on the given operations, e.g. inside a pipeline.
+     */
+    public void add(RedisOperations<String, ?> operations, String eventId, long delta) {
+        redisCounters.add(operations, key(eventId), delta);
+    }
+
+    public void decrement(String eventId) {
+        redisCounters.decrement(key(eventId));
+    }
+
+    public void delete(String eventId) {
+        redisCounters.delete(key(eventId));
+    }
+}
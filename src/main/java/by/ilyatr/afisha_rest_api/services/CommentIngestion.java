@@ -0,0 +1,213 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.Exception.CommentQueueFullException;
+import by.ilyatr.afisha_rest_api.Exception.EventNotFoundException;
+import by.ilyatr.afisha_rest_api.Exception.InvalidCommentException;
+import by.ilyatr.afisha_rest_api.Exception.UserNotFoundException;
+import by.ilyatr.afisha_rest_api.configuration.CommentIngestionProperties;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
+import by.ilyatr.afisha_rest_api.metrics.CommentIngestionMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts new comments into a bounded queue and writes them in batches on a single writer
+ * thread, so a burst of comments costs one transaction per batch instead of one per comment.
+ * <p>
+ * A comment is checked against the existence filters only, so it is acknowledged before its
+ * user and event are known to exist. A batch that hits a foreign key violation is retried row by
+ * row and the offending comments are dropped; a batch the database cannot take is retried up to
+ * {@code maxRetries} times and then dropped, while new comments are rejected once the queue is
+ * full.
+ */
+@Service
+@Slf4j
+public class CommentIngestion {
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final CommentBatchWriter commentBatchWriter;
+    private final ExistenceFilter existenceFilter;
+    private final CommentIngestionMetrics metrics;
+    private final CommentIngestionProperties properties;
+    private final BlockingQueue<Pending> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentIngestion(CommentBatchWriter commentBatchWriter,
+                            ExistenceFilter existenceFilter,
+                            CommentIngestionMetrics metrics,
+                            CommentIngestionProperties properties) {
+        this.commentBatchWriter = commentBatchWriter;
+        this.existenceFilter = existenceFilter;
+        this.metrics = metrics;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        metrics.bindQueue(queue);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @return the comment with the id and timestamps it will be stored with
+     */
+    public CommentDto enqueue(CommentDto commentDto) {
+        if (commentDto.getUserId() == null || commentDto.getEventId() == null
+                || commentDto.getText() == null || commentDto.getText().isBlank()) {
+            throw new InvalidCommentException("userId, eventId and text are required");
+        }
+        if (!existenceFilter.mightExist(ExistenceFilter.Type.USER, commentDto.getUserId())) {
+            throw new UserNotFoundException(commentDto.getUserId());
+        }
+        if (!existenceFilter.mightExist(ExistenceFilter.Type.EVENT, commentDto.getEventId())) {
+            throw new EventNotFoundException(commentDto.getEventId());
+        }
+        Instant now = Instant.now();
+        CommentDto accepted = new CommentDto(TimeOrderedUuid.next(), commentDto.getUserId(),
+                commentDto.getEventId(), commentDto.getText(), now, now);
+        if (!running || !queue.offer(new Pending(accepted, System.nanoTime()))) {
+            metrics.recordRejected();
+            throw new CommentQueueFullException();
+        }
+        return accepted;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("comment-ingestion").start(this::drain);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(properties.getShutdownTimeout());
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.warn("Comment writer did not finish in {}, {} accepted comments are lost",
+                    properties.getShutdownTimeout(), queue.size());
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                if (fill(batch)) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for a first comment, then up to {@code maxBatchDelay} for the batch to fill.
+     */
+    private boolean fill(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + properties.getMaxBatchDelay().toNanos();
+        while (batch.size() < properties.getBatchSize()) {
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void write(List<Pending> batch) throws InterruptedException {
+        boolean oneByOne = false;
+        int failures = 0;
+        while (true) {
+            try {
+                if (oneByOne) {
+                    writeOneByOne(batch);
+                } else {
+                    commentBatchWriter.insert(batch.stream().map(pending -> pending.comment).toList());
+                    recordWritten(batch);
+                }
+                return;
+            } catch (DataIntegrityViolationException e) {
+                oneByOne = true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Could not write {} accepted comments during shutdown, they are lost", batch.size(), e);
+                    return;
+                }
+                if (++failures > properties.getMaxRetries()) {
+                    log.error("Could not write {} accepted comments in {} attempts, they are lost",
+                            batch.size(), failures, e);
+                    batch.forEach(pending -> metrics.recordDropped());
+                    return;
+                }
+                log.warn("Could not write {} comments, retrying in {}", batch.size(), properties.getRetryBackoff(), e);
+                Thread.sleep(properties.getRetryBackoff());
+            }
+        }
+    }
+
+    // Written rows leave the batch, so a retry after another failure does not insert them twice
+    private void writeOneByOne(List<Pending> batch) {
+        Iterator<Pending> iterator = batch.iterator();
+        while (iterator.hasNext()) {
+            Pending pending = iterator.next();
+            try {
+                commentBatchWriter.insert(List.of(pending.comment));
+                recordWritten(List.of(pending));
+            } catch (DataIntegrityViolationException e) {
+                metrics.recordDropped();
+                log.warn("Dropping comment {}: user {} or event {} does not exist", pending.comment.getId(),
+                        pending.comment.getUserId(), pending.comment.getEventId());
+            }
+            iterator.remove();
+        }
+    }
+
+    private void recordWritten(List<Pending> written) {
+        long now = System.nanoTime();
+        written.forEach(pending -> metrics.recordWritten(pending.enqueuedNanos, now));
+    }
+
+    private static final class Pending {
+        private final CommentDto comment;
+        private final long enqueuedNanos;
+
+        Pending(CommentDto comment, long enqueuedNanos) {
+            this.comment = comment;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
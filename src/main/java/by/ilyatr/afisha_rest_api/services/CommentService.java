@@ -1,34 +1,30 @@
 package by.ilyatr.afisha_rest_api.services;
 
 import by.ilyatr.afisha_rest_api.Exception.CommentNotFoundException;
+import by.ilyatr.afisha_rest_api.cache.CacheBulkLoader;
+import by.ilyatr.afisha_rest_api.cache.CacheLoadCoordinator;
 import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.CommentStreamMessage;
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
+import by.ilyatr.afisha_rest_api.dto.PageCursor;
 import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
 import by.ilyatr.afisha_rest_api.mapper.CommentMapper;
 import by.ilyatr.afisha_rest_api.mapper.HelperMapper;
 import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import lombok.experimental.Helper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -37,45 +33,51 @@ import java.util.UUID;
 public class CommentService {
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
-    private final RedisTemplate<String, Object> redisTemplate;
     private final HelperMapper helperMapper;
-    private final CacheManager cacheManager;
+    private final CacheBulkLoader cacheBulkLoader;
+    private final CommentCounter commentCounter;
+    private final SearchService searchService;
+    private final CacheLoadCoordinator cacheLoadCoordinator;
+    private final ExistenceFilter existenceFilter;
+    private final RecentComments recentComments;
+    private final CommentStreamPublisher commentStreamPublisher;
 
     private final String COMMENTS_CACHE = "comments";
-    private String redisKey(String eventId){
-        return "event:"+eventId+":comments";
-    }
-
 
     @Transactional
     public CommentDto createComment(CommentDto commentDto) {
-        String commentId = UUID.randomUUID().toString();
+        String commentId = TimeOrderedUuid.next();
         commentDto.setId(commentId);
         commentDto.setUpdatedAt(Instant.now());
         commentDto.setCreatedAt(Instant.now());
         Comment comment = commentMapper.toComment(commentDto);
         helperMapper.setUserAndEvent(commentDto, comment);
+        existenceFilter.add(ExistenceFilter.Type.COMMENT, commentId);
         commentRepository.save(comment);
 
         log.info("Comment with id {} created", commentId);
 
-        redisTemplate.opsForList().leftPush(redisKey(comment.getEvent().getId()), commentId);
+        searchService.indexComment(commentId, comment.getText());
+        CommentDto created = commentMapper.toCommentDto(comment);
+        AfterCommit.run(() -> {
+            commentCounter.increment(created.getEventId());
+            recentComments.add(created.getEventId(), List.of(created));
+        });
+        commentStreamPublisher.publishAfterCommit(CommentStreamMessage.Type.CREATED, created);
         log.info("id {} of comment added to cache", commentId);
-        return commentMapper.toCommentDto(comment);
+        return created;
     }
 
     public CommentDto getComment(String id) {
-        Cache cache = cacheManager.getCache(COMMENTS_CACHE);
-        if (cache.get(id, CommentDto.class) == null ) {
-            log.info("Getting comment with id {} from Db", id);
-            CommentDto comment = commentRepository
-                    .findByIdWithUserAndEvent(id)
-                    .map(commentMapper::toCommentDto)
-                    .orElseThrow(()-> new CommentNotFoundException(id));
-            putToCache(comment);
-            return comment;
+        if (!existenceFilter.mightExist(ExistenceFilter.Type.COMMENT, id)) {
+            throw new CommentNotFoundException(id);
         }
-        return cache.get(id, CommentDto.class);
+        return cacheLoadCoordinator.get(COMMENTS_CACHE, id, CommentDto.class, () -> {
+            log.debug("Getting comment with id {} from Db", id);
+            return commentRepository
+                    .findDtoById(id)
+                    .orElseThrow(()-> new CommentNotFoundException(id));
+        });
     }
 
     @Transactional
@@ -83,12 +85,15 @@ public class CommentService {
     public boolean deleteComment(String id) {
         if (commentRepository.existsById(id)) {
             CommentDto oldComment = commentRepository
-                    .findByIdWithUserAndEvent(id)
-                    .map(commentMapper::toCommentDto)
+                    .findDtoById(id)
                     .orElseThrow(() -> new CommentNotFoundException(id));
             commentRepository.deleteById(id);
-            redisTemplate.opsForList().remove(redisKey(oldComment.getEventId()), 1,
-                    oldComment);
+            searchService.removeComments(List.of(id));
+            AfterCommit.run(() -> {
+                commentCounter.decrement(oldComment.getEventId());
+                recentComments.remove(oldComment.getEventId(), List.of(id));
+            });
+            commentStreamPublisher.publishAfterCommit(CommentStreamMessage.Type.DELETED, oldComment);
             log.info("Comment {} deleted from DB and cache", id);
             return true;
         } else {
@@ -104,14 +109,18 @@ public class CommentService {
         commentDto.setUpdatedAt(Instant.now());
         Comment comment =commentMapper
                 .updateComment(commentDto, commentRepository
-                .findByIdWithUserAndEvent(id).orElseThrow(()-> new CommentNotFoundException(id)));
+                .findById(id).orElseThrow(()-> new CommentNotFoundException(id)));
         commentRepository.save(comment);
+        searchService.indexComment(id, comment.getText());
         log.info("Comment {} updated in DB", id);
-        return commentMapper.toCommentDto(comment);
+        CommentDto updated = commentMapper.toCommentDto(comment);
+        AfterCommit.run(() -> recentComments.add(updated.getEventId(), List.of(updated)));
+        commentStreamPublisher.publishAfterCommit(CommentStreamMessage.Type.UPDATED, updated);
+        return updated;
     }
 
     public Page<CommentDto> getComments(String eventId, Pageable pageable) {
-        if (pageable.getPageNumber() ==0){
+        if (pageable.getPageNumber() == 0 && pageable.getPageSize() <= recentComments.capacity()) {
             Page<CommentDto> cached = getCommentsFirstPageFromCache(eventId, pageable);
             if (cached != null) {
                 return cached;
@@ -120,49 +129,87 @@ public class CommentService {
         return getCommentsFromDb(eventId, pageable);
     }
 
+    public CursorPage<CommentDto> getComments(String eventId, String after, int size) {
+        int pageSize = CursorPage.limit(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<CommentDto> comments;
+        if (after == null || after.isBlank()) {
+            comments = commentRepository.findDtosByEventId(eventId, limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            comments = commentRepository.findDtosByEventIdAfter(eventId, cursor.getTimestamp(), cursor.getId(), limit);
+        }
+        return CursorPage.of(comments, pageSize,
+                comment -> new PageCursor(comment.getUpdatedAt(), comment.getId()));
+    }
+
+    /**
+     * Comments of an event updated after the cursor, oldest first, read through the recent
+     * comments.
+     *
+     * @return null if more comments changed since than the recent comments hold
+     */
+    public List<CommentDto> getCommentsSince(String eventId, PageCursor cursor) {
+        long total = commentCounter.count(eventId);
+        List<String> ids = recentComments.after(eventId, cursor.getTimestamp(), cursor.getId(), total);
+        if (ids == null) {
+            recentComments.load(eventId,
+                    commentRepository.findDtosByEventId(eventId, PageRequest.of(0, recentComments.capacity())));
+            ids = recentComments.after(eventId, cursor.getTimestamp(), cursor.getId(), total);
+            if (ids == null) {
+                return null;
+            }
+        }
+        return cacheBulkLoader.getAll(COMMENTS_CACHE, ids, CommentDto.class,
+                commentRepository::findDtosByIds, CommentDto::getId);
+    }
+
+    /**
+     * Caches the first comment page of an event and its comment counter, loading the recent
+     * comments of the event if they are not in Redis yet.
+     */
+    public void warmFirstPage(String eventId, int size) {
+        PageRequest firstPage = PageRequest.of(0, Math.min(size, recentComments.capacity()));
+        if (getCommentsFirstPageFromCache(eventId, firstPage) == null) {
+            List<CommentDto> comments = commentRepository.findDtosByEventId(eventId, firstPage);
+            cacheBulkLoader.putAll(COMMENTS_CACHE, comments, CommentDto::getId);
+            recentComments.load(eventId, comments);
+        }
+    }
+
+    /**
+     * @return null unless the recent comments hold the whole page or all comments of the event
+     */
     private Page<CommentDto> getCommentsFirstPageFromCache(String eventId,
                                                            Pageable pageable) {
-
-        var ids= redisTemplate.opsForList().range(redisKey(eventId), 0, pageable.getPageSize() - 1);
-        if (ids==null || ids.isEmpty()) {
+        List<String> ids = recentComments.newest(eventId, pageable.getPageSize());
+        long total = commentCounter.count(eventId);
+        if (ids.size() < pageable.getPageSize() && ids.size() < total) {
             return null;
         }
-        log.info("got comments for Event with id {} from cache", eventId);
-        redisTemplate.opsForList().trim(redisKey(eventId), 0, pageable.getPageSize() - 1);
-        log.info("Cache for comments was trimmed");
-        List<CommentDto> comments = ids
-                .stream()
-                .map(id -> getComment(id.toString()))
-                .toList();
-
-        long total = commentRepository.count();
+        log.debug("got comments for Event with id {} from cache", eventId);
+        List<CommentDto> comments = cacheBulkLoader.getAll(COMMENTS_CACHE,
+                ids,
+                CommentDto.class,
+                commentRepository::findDtosByIds,
+                CommentDto::getId);
         return new PageImpl<>(comments, pageable, total);
     }
 
     private Page<CommentDto> getCommentsFromDb(String eventId, Pageable pageable) {
-        Page<Comment> page = commentRepository
-                .findTop100ByEventIdOrderByUpdatedAtDesc(eventId, pageable);
-        log.info("comments was got for Event with id {} from db", eventId);
-        
-        List<CommentDto> comments = page
-                .getContent()
-                .stream()
-                .map(commentMapper::toCommentDto)
-                .toList();
-
-        String redisKey = redisKey(eventId);
-        for (int i = 0; i < pageable.getPageSize(); i++) {
-            if (i >= comments.size()) break;
-            redisTemplate.opsForList().leftPush(redisKey, comments.get(i).getId());
+        List<CommentDto> comments = commentRepository.findDtosByEventId(eventId, capped(pageable));
+        log.debug("comments was got for Event with id {} from db", eventId);
+        if (pageable.getPageNumber() == 0) {
+            recentComments.load(eventId, comments);
         }
-
-        return new PageImpl<>(comments, pageable, page.getTotalElements());
+        return new PageImpl<>(comments, pageable, commentCounter.count(eventId));
     }
 
-    private void putToCache(CommentDto commentDto){
-       Cache cache= cacheManager.getCache(COMMENTS_CACHE);
-       cache.put(commentDto.getId(), commentDto);
+    private static Pageable capped(Pageable pageable) {
+        return pageable.getPageSize() <= CursorPage.MAX_SIZE ? pageable
+                : PageRequest.of(pageable.getPageNumber(), CursorPage.MAX_SIZE, pageable.getSort());
     }
 
 
+
 }
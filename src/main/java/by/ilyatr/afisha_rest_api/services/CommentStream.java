@@ -0,0 +1,321 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.Exception.CommentStreamLimitException;
+import by.ilyatr.afisha_rest_api.Exception.EventNotFoundException;
+import by.ilyatr.afisha_rest_api.configuration.CommentStreamProperties;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.CommentStreamMessage;
+import by.ilyatr.afisha_rest_api.dto.PageCursor;
+import by.ilyatr.afisha_rest_api.metrics.CommentStreamMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent events of the created, updated and deleted comments of an event.
+ * <p>
+ * A node subscribes to the Redis channel of an event while it streams that event to at least one
+ * client, and fans every message out to those clients. Streams hold no thread while idle: each
+ * has a queue of pending events drained by a shared pool of senders, and one that falls too far
+ * behind is closed so its client reconnects.
+ * <p>
+ * Created and updated comments carry their position as the event id. A client reconnecting with
+ * {@code Last-Event-ID} is first sent the comments changed since, read from the recent comments,
+ * or a {@code reset} event when those do not reach back that far. Deletions are not replayed.
+ * Changes may arrive twice around a reconnect; clients apply them by comment id.
+ */
+@Service
+@Slf4j
+public class CommentStream {
+    private static final String RESET = "reset";
+
+    private final RedisMessageListenerContainer container;
+    private final CommentService commentService;
+    private final ExistenceFilter existenceFilter;
+    private final JsonMapper jsonMapper;
+    private final CommentStreamProperties properties;
+    private final CommentStreamMetrics metrics;
+    private final ExecutorService senders;
+    private final Map<String, Watchers> watchersByEvent = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public CommentStream(RedisMessageListenerContainer container,
+                         CommentService commentService,
+                         ExistenceFilter existenceFilter,
+                         JsonMapper jsonMapper,
+                         CommentStreamProperties properties,
+                         CommentStreamMetrics metrics,
+                         Environment environment) {
+        this.container = container;
+        this.commentService = commentService;
+        this.existenceFilter = existenceFilter;
+        this.jsonMapper = jsonMapper;
+        this.properties = properties;
+        this.metrics = metrics;
+        // A sender blocks while a client's socket buffer is full
+        this.senders = Threading.VIRTUAL.isActive(environment)
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("comment-stream-", 0).factory())
+                : Executors.newFixedThreadPool(properties.getSenderThreads(),
+                        Thread.ofPlatform().daemon().name("comment-stream-", 0).factory());
+        metrics.bind(connections::get, watchersByEvent::size);
+    }
+
+    /**
+     * Opens a stream of the comment changes of an event.
+     *
+     * @param lastEventId id of the last event the client received, to resume after it
+     */
+    public SseEmitter open(String eventId, String lastEventId) {
+        if (!existenceFilter.mightExist(ExistenceFilter.Type.EVENT, eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        PageCursor resumeAfter = lastEventId == null || lastEventId.isBlank() ? null : PageCursor.decode(lastEventId);
+        if (connections.incrementAndGet() > properties.getMaxConnections()) {
+            connections.decrementAndGet();
+            throw new CommentStreamLimitException();
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Connection connection = new Connection(eventId, emitter);
+        emitter.onCompletion(() -> close(connection));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> close(connection));
+        try {
+            Watchers watchers = watchersByEvent.compute(eventId, (id, current) -> {
+                current = current == null ? new Watchers(id) : current;
+                connection.watchers = current;
+                current.connections.add(connection);
+                return current;
+            });
+            // Subscribed before reading the missed comments, so no change falls in between
+            watchers.subscribe();
+            if (resumeAfter != null) {
+                replay(connection, resumeAfter);
+            }
+        } catch (RuntimeException e) {
+            close(connection);
+            throw e;
+        }
+        connection.sending.set(false);
+        schedule(connection);
+        return emitter;
+    }
+
+    private void replay(Connection connection, PageCursor after) {
+        List<CommentDto> missed = commentService.getCommentsSince(connection.eventId, after);
+        if (missed == null) {
+            connection.replay.add(new Outgoing(SseEmitter.event().name(RESET).data("").build(), null));
+            return;
+        }
+        for (CommentDto comment : missed) {
+            connection.replay.add(new Outgoing(event(CommentStreamMessage.Type.UPDATED, comment,
+                    jsonMapper.writeValueAsString(comment)), null));
+        }
+    }
+
+    private void onMessage(Set<Connection> watching, Message message) {
+        if (watching.isEmpty()) {
+            return;
+        }
+        CommentStreamMessage change;
+        try {
+            change = jsonMapper.readValue(message.getBody(), CommentStreamMessage.class);
+        } catch (JacksonException e) {
+            log.debug("Ignoring comment stream message on {}",
+                    new String(message.getChannel(), StandardCharsets.UTF_8), e);
+            return;
+        }
+        // Serialized once for all the connections of the event
+        Outgoing outgoing = new Outgoing(event(change.getType(), change.getComment(),
+                jsonMapper.writeValueAsString(change.getComment())), change.getPublishedAt());
+        watching.forEach(connection -> enqueue(connection, outgoing));
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> event(CommentStreamMessage.Type type, CommentDto comment,
+                                                                   String json) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(type.name().toLowerCase());
+        // A deletion keeps the client's position, it is not replayed on resume
+        if (type != CommentStreamMessage.Type.DELETED) {
+            event.id(new PageCursor(comment.getUpdatedAt(), comment.getId()).encode());
+        }
+        return event.data(json, MediaType.APPLICATION_JSON).build();
+    }
+
+    @Scheduled(fixedDelayString = "${afisha.comments.stream.heartbeat-interval:30s}")
+    public void heartbeat() {
+        Outgoing outgoing = new Outgoing(SseEmitter.event().comment("").build(), null);
+        watchersByEvent.values().forEach(watchers -> watchers.connections.forEach(connection -> enqueue(connection, outgoing)));
+    }
+
+    private void enqueue(Connection connection, Outgoing outgoing) {
+        if (connection.isClosed()) {
+            return;
+        }
+        if (connection.pendingCount.incrementAndGet() > properties.getMaxPendingEvents()) {
+            metrics.recordSlowClosed();
+            log.debug("Closing a comment stream of event {} that fell behind", connection.eventId);
+            close(connection);
+            // Off the listener thread, completing waits for a send in progress
+            senders.execute(connection.emitter::complete);
+            return;
+        }
+        connection.pending.add(outgoing);
+        schedule(connection);
+    }
+
+    private void schedule(Connection connection) {
+        if (!connection.isClosed() && connection.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(connection));
+        }
+    }
+
+    private void send(Connection connection) {
+        try {
+            Outgoing outgoing;
+            while (!connection.isClosed() && (outgoing = connection.replay.poll()) != null) {
+                connection.emitter.send(outgoing.data);
+            }
+            while (!connection.isClosed() && (outgoing = connection.pending.poll()) != null) {
+                connection.pendingCount.decrementAndGet();
+                connection.emitter.send(outgoing.data);
+                if (outgoing.publishedAt != null) {
+                    metrics.recordSent(Duration.between(outgoing.publishedAt, Instant.now()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, the container reports the error
+            close(connection);
+        } finally {
+            connection.sending.set(false);
+        }
+        if (!connection.pending.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        Watchers watchers = connection.watchers;
+        if (watchers == null) {
+            return;
+        }
+        watchersByEvent.computeIfPresent(connection.eventId, (id, current) -> {
+            current.connections.remove(connection);
+            return current.connections.isEmpty() ? null : current;
+        });
+        if (watchersByEvent.get(connection.eventId) != watchers) {
+            watchers.unsubscribe();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private static final class Outgoing {
+        private final Set<ResponseBodyEmitter.DataWithMediaType> data;
+        // Null for events not published through Redis
+        private final Instant publishedAt;
+
+        Outgoing(Set<ResponseBodyEmitter.DataWithMediaType> data, Instant publishedAt) {
+            this.data = data;
+            this.publishedAt = publishedAt;
+        }
+    }
+
+    /**
+     * The connections of an event on this node. Subscribing and unsubscribing block on Redis, so
+     * they happen outside of the map, each set with a listener of its own: one replacing a set
+     * being unsubscribed keeps the channel subscribed.
+     */
+    private final class Watchers {
+        private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        private final ChannelTopic topic;
+        private final MessageListener listener = (message, pattern) -> onMessage(connections, message);
+        private final Lock lock = new ReentrantLock();
+        private boolean subscribed;
+        private boolean unsubscribed;
+
+        Watchers(String eventId) {
+            this.topic = new ChannelTopic(properties.getChannelPrefix() + eventId);
+        }
+
+        void subscribe() {
+            lock.lock();
+            try {
+                if (!subscribed && !unsubscribed) {
+                    container.addMessageListener(listener, topic);
+                    subscribed = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void unsubscribe() {
+            lock.lock();
+            try {
+                unsubscribed = true;
+                if (subscribed) {
+                    subscribed = false;
+                    container.removeMessageListener(listener, topic);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Connection {
+        private final String eventId;
+        private final SseEmitter emitter;
+        private volatile Watchers watchers;
+        private final Queue<Outgoing> replay = new ConcurrentLinkedQueue<>();
+        private final Queue<Outgoing> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        // Held until the missed comments are queued, so they go out first
+        private final AtomicBoolean sending = new AtomicBoolean(true);
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Connection(String eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+    }
+}
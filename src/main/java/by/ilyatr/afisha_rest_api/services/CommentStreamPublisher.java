@@ -0,0 +1,71 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.CommentStreamProperties;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.CommentStreamMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Publishes comment changes after commit to the Redis channel of their event, which
+ * {@link CommentStream} relays to the clients watching it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommentStreamPublisher {
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JsonMapper jsonMapper;
+    private final CommentStreamProperties properties;
+
+    public void publishAfterCommit(CommentStreamMessage.Type type, CommentDto comment) {
+        AfterCommit.run(() -> {
+            try {
+                stringRedisTemplate.convertAndSend(channel(comment.getEventId()), message(type, comment));
+            } catch (RuntimeException e) {
+                log.warn("Could not publish {} comment {}, streams of event {} miss it",
+                        type, comment.getId(), comment.getEventId(), e);
+            }
+        });
+    }
+
+    /**
+     * Publishes the given comments as created in one pipeline; call after commit.
+     */
+    public void publishCreated(Collection<CommentDto> comments) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    var ops = (RedisOperations<String, String>) operations;
+                    comments.forEach(comment -> ops.convertAndSend(channel(comment.getEventId()),
+                            message(CommentStreamMessage.Type.CREATED, comment)));
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not publish {} created comments, streams miss them", comments.size(), e);
+        }
+    }
+
+    String channel(String eventId) {
+        return properties.getChannelPrefix() + eventId;
+    }
+
+    private String message(CommentStreamMessage.Type type, CommentDto comment) {
+        return jsonMapper.writeValueAsString(new CommentStreamMessage(type, comment, Instant.now()));
+    }
+}
@@ -0,0 +1,29 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.entities.Event;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts a chunk of new events in its own transaction.
+ * <p>
+ * Uses {@code persist} rather than {@code save}: the ids are assigned, so {@code save} would
+ * merge and select every row first. The inserts are sent in JDBC batches on flush.
+ * A repository, so a failed flush is translated to a {@code DataAccessException}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventBatchWriter {
+    private final EntityManager entityManager;
+
+    @Transactional
+    public void insert(List<Event> events) {
+        events.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,135 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.Exception.InvalidFilterException;
+import by.ilyatr.afisha_rest_api.configuration.RedisConfiguration;
+import by.ilyatr.afisha_rest_api.dto.CachedPage;
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.EventFilter;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.metrics.CacheLoadMetrics;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Event filter with cached result pages.
+ * <p>
+ * Cache keys embed a generation counter: the filtered category's for category filters, the
+ * global one otherwise. Writes bump the generation of the categories they touch and the global
+ * one after commit, so every node stops reading the affected pages at once; stale entries are
+ * left to expire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class EventFilterService {
+    private static final String GENERATION_KEY_PREFIX = "events:filter:generation:";
+    private static final String ALL_CATEGORIES = "*";
+    private static final Set<String> SORTABLE = Set.of("date", "price");
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "date");
+
+    private final EventRepository eventRepository;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheLoadMetrics cacheLoadMetrics;
+
+    public Page<EventDto> filter(EventFilter filter, Pageable pageable) {
+        Pageable normalized = normalize(pageable);
+        String key = cacheKey(filter, normalized);
+        Cache cache = cacheManager.getCache(RedisConfiguration.EVENTS_FILTER_CACHE);
+        CachedPage<?> cached = cache.get(key, CachedPage.class);
+        if (cached != null) {
+            log.debug("Filter page {} from cache", key);
+            return new PageImpl<>(cached.getContent().stream().map(EventDto.class::cast).toList(),
+                    normalized, cached.getTotal());
+        }
+        Page<EventDto> page = cacheLoadMetrics.recordLoad(RedisConfiguration.EVENTS_FILTER_CACHE,
+                () -> eventRepository.filter(filter, normalized));
+        cache.put(key, new CachedPage<>(page.getContent(), page.getTotalElements()));
+        return page;
+    }
+
+    public void invalidate(Category... categories) {
+        invalidate(Arrays.asList(categories));
+    }
+
+    /**
+     * Invalidates the cached pages that may contain events of the given categories,
+     * after the current transaction commits.
+     */
+    public void invalidate(Collection<Category> categories) {
+        Set<String> keys = new HashSet<>();
+        keys.add(generationKey(ALL_CATEGORIES));
+        categories.stream().filter(Objects::nonNull).forEach(category -> keys.add(generationKey(category.name())));
+        AfterCommit.run(() -> bumpGenerations(keys));
+    }
+
+    private void bumpGenerations(Set<String> keys) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                var ops = (RedisOperations<String, String>) operations;
+                keys.forEach(key -> ops.opsForValue().increment(key));
+                return null;
+            }
+        });
+    }
+
+    private String cacheKey(EventFilter filter, Pageable pageable) {
+        String scope = filter.getCategory() != null ? filter.getCategory().name() : ALL_CATEGORIES;
+        String generation = stringRedisTemplate.opsForValue().get(generationKey(scope));
+        Sort.Order order = pageable.getSort().iterator().next();
+        return "g" + (generation != null ? generation : "0")
+                + "|c=" + scope
+                + "|d=" + Objects.toString(filter.getFrom(), "") + "-" + Objects.toString(filter.getTo(), "")
+                + "|p=" + plain(filter.getMinPrice()) + "-" + plain(filter.getMaxPrice())
+                + "|s=" + order.getProperty() + ":" + order.getDirection()
+                + "|" + pageable.getPageNumber() + ":" + pageable.getPageSize();
+    }
+
+    /**
+     * Restricts sorting to one indexed column with the id as tie-breaker, and caps the page size.
+     */
+    private static Pageable normalize(Pageable pageable) {
+        Sort.Order order = pageable.getSort().stream().findFirst()
+                .orElse(DEFAULT_SORT.iterator().next());
+        if (!SORTABLE.contains(order.getProperty())) {
+            throw new InvalidFilterException("Unsupported sort property: " + order.getProperty()
+                    + ", expected one of " + SORTABLE);
+        }
+        Sort sort = Sort.by(new Sort.Order(order.getDirection(), order.getProperty()),
+                new Sort.Order(order.getDirection(), "id"));
+        return PageRequest.of(pageable.getPageNumber(), CursorPage.limit(pageable.getPageSize()), sort);
+    }
+
+    private static String generationKey(String scope) {
+        return GENERATION_KEY_PREFIX + scope;
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros().toPlainString() : "";
+    }
+}
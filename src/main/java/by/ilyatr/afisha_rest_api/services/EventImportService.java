@@ -0,0 +1,154 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.EventImportProperties;
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.EventImportResult;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
+import by.ilyatr.afisha_rest_api.mapper.EventMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk event import from a JSON array or NDJSON body.
+ * <p>
+ * The body is parsed one row at a time. Valid rows are inserted in chunks, each chunk in its own
+ * transaction followed by one Redis pipeline, so a failed chunk does not roll back earlier ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventImportService {
+    private static final int TITLE_MAX_LENGTH = 120;
+
+    private final EventBatchWriter eventBatchWriter;
+    private final EventMapper eventMapper;
+    private final JsonMapper jsonMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCounters redisCounters;
+    private final EventImportProperties properties;
+    private final EventFilterService eventFilterService;
+    private final SearchService searchService;
+    private final ExistenceFilter existenceFilter;
+
+    public EventImportResult importEvents(InputStream body) {
+        EventImportResult result = new EventImportResult();
+        List<Event> chunk = new ArrayList<>(properties.getChunkSize());
+        List<Long> chunkRows = new ArrayList<>(properties.getChunkSize());
+        long row = 0;
+        try (JsonParser parser = jsonMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            // NDJSON is a sequence of root-level values, which the parser reads the same way
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    chunk.add(toEvent(node));
+                    chunkRows.add(row);
+                } catch (JacksonException | IllegalArgumentException e) {
+                    fail(result, row, e instanceof JacksonException je ? je.getOriginalMessage() : e.getMessage());
+                }
+                if (chunk.size() >= properties.getChunkSize()) {
+                    writeChunk(chunk, chunkRows, result);
+                }
+                token = parser.nextToken();
+            }
+        } catch (JacksonException e) {
+            // The rest of the body cannot be split into rows
+            fail(result, row + 1, "Malformed body, import stopped: " + e.getOriginalMessage());
+        }
+        writeChunk(chunk, chunkRows, result);
+        log.info("Imported {} events, {} rows failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private Event toEvent(JsonNode node) {
+        EventDto eventDto = jsonMapper.treeToValue(node, EventDto.class);
+        if (eventDto.getTitle() == null || eventDto.getTitle().isBlank()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        if (eventDto.getTitle().length() > TITLE_MAX_LENGTH) {
+            throw new IllegalArgumentException("title is longer than " + TITLE_MAX_LENGTH + " characters");
+        }
+        if (eventDto.getDate() == null || eventDto.getCategory() == null || eventDto.getPrice() == null) {
+            throw new IllegalArgumentException("date, category and price are required");
+        }
+        eventDto.setId(TimeOrderedUuid.next());
+        return eventMapper.toEvent(eventDto);
+    }
+
+    private void writeChunk(List<Event> chunk, List<Long> chunkRows, EventImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> ids = chunk.stream().map(Event::getId).toList();
+        try {
+            eventBatchWriter.insert(chunk);
+        } catch (DataAccessException e) {
+            log.warn("Could not insert a chunk of {} events", chunk.size(), e);
+            chunkRows.forEach(row -> fail(result, row, "Chunk rolled back: " + e.getMostSpecificCause().getMessage()));
+            chunk.clear();
+            chunkRows.clear();
+            return;
+        }
+        result.setImported(result.getImported() + chunk.size());
+        try {
+            existenceFilter.addAll(ExistenceFilter.Type.EVENT, ids);
+            updateRedis(ids);
+            eventFilterService.invalidate(chunk.stream().map(Event::getCategory).collect(Collectors.toSet()));
+            chunk.forEach(event -> searchService.indexEvent(event.getId(), event.getTitle()));
+        } catch (RuntimeException e) {
+            // The rows are committed and stay imported; the caches expire and the index is rebuilt
+            log.warn("Imported {} events but could not update the caches or the search index", ids.size(), e);
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    private void updateRedis(List<String> ids) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    var ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForList().leftPushAll(EventService.LAST_EVENTS_KEY, ids.toArray());
+                    // Only the first page is served from the list
+                    ops.opsForList().trim(EventService.LAST_EVENTS_KEY, 0, CursorPage.MAX_SIZE - 1);
+                    redisCounters.add(ops, EventService.EVENTS_COUNT_KEY, ids.size());
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            // The rows are committed; drop the counter so it is recounted instead of drifting
+            log.warn("Could not update Redis after importing {} events", ids.size(), e);
+            redisCounters.delete(EventService.EVENTS_COUNT_KEY);
+        }
+    }
+
+    private void fail(EventImportResult result, long row, String error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getFailures().size() < properties.getMaxReportedFailures()) {
+            result.getFailures().add(new EventImportResult.RowFailure(row, error));
+        }
+    }
+}
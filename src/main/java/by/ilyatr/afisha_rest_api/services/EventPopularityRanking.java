@@ -0,0 +1,181 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.PopularityProperties;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Popularity ranking over rolling time buckets.
+ * <p>
+ * Views go to one sorted set per bucket ({@code events:popular:<bucket>}) that expires once it
+ * leaves the window. {@link #rebuild()} merges the window with decayed weights into the
+ * precomputed top-N set {@code events:popular} that the popular endpoint reads.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventPopularityRanking {
+    public static final String POPULAR_EVENTS_KEY = "events:popular";
+    private static final String BUCKET_KEY_PREFIX = "events:popular:";
+    // Suffixed per rebuild, so rebuilds running on several nodes do not share a key
+    private static final String REBUILD_KEY_PREFIX = "events:popular:rebuild:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final EventRepository eventRepository;
+    private final PopularityProperties properties;
+
+    public void addViews(Map<String, Long> views) {
+        String bucketKey = bucketKey(currentBucket());
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                var ops = (RedisOperations<String, Object>) operations;
+                views.forEach((id, count) -> ops.opsForZSet().incrementScore(bucketKey, id, count));
+                ops.expire(bucketKey, properties.getBucketDuration()
+                        .multipliedBy(properties.getWindowBuckets() + 1L));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Seeds an empty ranking so the popular endpoint has something to show before the first views.
+     * Members are only added if absent, so scores already in place are kept.
+     */
+    public void seedIfEmpty(List<String> eventIds) {
+        Long ranked = redisTemplate.opsForZSet().zCard(POPULAR_EVENTS_KEY);
+        if (eventIds.isEmpty() || (ranked != null && ranked > 0)) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                var ops = (RedisOperations<String, Object>) operations;
+                eventIds.forEach(id -> ops.opsForZSet().addIfAbsent(POPULAR_EVENTS_KEY, id, 0));
+                return null;
+            }
+        });
+        log.info("Popularity ranking seeded with {} events", eventIds.size());
+    }
+
+    public void remove(String eventId) {
+        List<String> keys = windowKeys();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                var ops = (RedisOperations<String, Object>) operations;
+                ops.opsForZSet().remove(POPULAR_EVENTS_KEY, eventId);
+                keys.forEach(key -> ops.opsForZSet().remove(key, eventId));
+                return null;
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${afisha.popularity.rebuild-interval:1m}")
+    public void rebuild() {
+        List<String> keys = windowKeys();
+        double[] weights = new double[keys.size()];
+        for (int age = 0; age < weights.length; age++) {
+            weights[age] = Math.pow(properties.getDecay(), age);
+        }
+        String rebuildKey = REBUILD_KEY_PREFIX + UUID.randomUUID();
+        var zSet = redisTemplate.opsForZSet();
+        try {
+            Long merged = zSet.unionAndStore(keys.getFirst(), keys.subList(1, keys.size()), rebuildKey,
+                    Aggregate.SUM, Weights.of(weights));
+            if (merged == null || merged == 0) {
+                resetToLatest(rebuildKey);
+                return;
+            }
+            zSet.removeRange(rebuildKey, 0, -(properties.getTopSize() + 1L));
+            removeDeleted(rebuildKey, keys);
+            redisTemplate.rename(rebuildKey, POPULAR_EVENTS_KEY);
+            log.debug("Popularity ranking rebuilt from {} buckets", keys.size());
+        } finally {
+            // Left behind only when the rebuild failed before the rename
+            redisTemplate.delete(rebuildKey);
+        }
+    }
+
+    /**
+     * With no views in the window the ranking falls back to the latest events, as when seeded,
+     * instead of keeping scores that have all left the window.
+     */
+    private void resetToLatest(String rebuildKey) {
+        Set<ZSetOperations.TypedTuple<Object>> top = redisTemplate.opsForZSet()
+                .reverseRangeWithScores(POPULAR_EVENTS_KEY, 0, 0);
+        if (top == null || top.isEmpty() || top.iterator().next().getScore() == 0) {
+            log.debug("No views in the popularity window, the ranking already holds the latest events");
+            return;
+        }
+        List<String> latest = eventRepository.findDtosByDateDescIdDesc(Limit.of(properties.getTopSize())).stream()
+                .map(EventDto::getId)
+                .toList();
+        if (latest.isEmpty()) {
+            redisTemplate.delete(POPULAR_EVENTS_KEY);
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        latest.forEach(id -> tuples.add(ZSetOperations.TypedTuple.of(id, 0.0)));
+        redisTemplate.opsForZSet().add(rebuildKey, tuples);
+        redisTemplate.rename(rebuildKey, POPULAR_EVENTS_KEY);
+        log.debug("No views in the popularity window, ranking reset to the {} latest events", latest.size());
+    }
+
+    private void removeDeleted(String rankingKey, List<String> bucketKeys) {
+        Set<Object> ranked = redisTemplate.opsForZSet().range(rankingKey, 0, -1);
+        if (ranked == null || ranked.isEmpty()) {
+            return;
+        }
+        Set<String> ids = new HashSet<>();
+        ranked.forEach(id -> ids.add(id.toString()));
+        eventRepository.findIdsByIds(ids).forEach(ids::remove);
+        if (ids.isEmpty()) {
+            return;
+        }
+        Object[] deleted = ids.toArray();
+        redisTemplate.opsForZSet().remove(rankingKey, deleted);
+        bucketKeys.forEach(key -> redisTemplate.opsForZSet().remove(key, deleted));
+        log.debug("Removed {} deleted events from the popularity ranking", deleted.length);
+    }
+
+    private long currentBucket() {
+        return Instant.now().toEpochMilli() / properties.getBucketDuration().toMillis();
+    }
+
+    private List<String> windowKeys() {
+        long current = currentBucket();
+        List<String> keys = new ArrayList<>(properties.getWindowBuckets());
+        for (int age = 0; age < properties.getWindowBuckets(); age++) {
+            keys.add(bucketKey(current - age));
+        }
+        return keys;
+    }
+
+    private static String bucketKey(long bucket) {
+        return BUCKET_KEY_PREFIX + bucket;
+    }
+}
@@ -1,26 +1,32 @@
 package by.ilyatr.afisha_rest_api.services;
 
 import by.ilyatr.afisha_rest_api.Exception.EventNotFoundException;
+import by.ilyatr.afisha_rest_api.cache.CacheBulkLoader;
+import by.ilyatr.afisha_rest_api.cache.CacheLoadCoordinator;
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
 import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.dto.PageCursor;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.entities.Comment;
 import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
 import by.ilyatr.afisha_rest_api.mapper.EventMapper;
 import by.ilyatr.afisha_rest_api.repositories.EventRepository;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -30,69 +36,99 @@ public class EventService {
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final RedisTemplate<String, Object> redisTemplate;
-    private final CacheManager cacheManager;
-
-    private static final String POPULAR_EVENTS_KEY = "events:popular";
-    private static final String LAST_EVENTS_KEY = "events:last";
+    private final CacheBulkLoader cacheBulkLoader;
+    private final EventViewCounter eventViewCounter;
+    private final EventPopularityRanking eventPopularityRanking;
+    private final CommentCounter commentCounter;
+    private final RecentComments recentComments;
+    private final RedisCounters redisCounters;
+    private final SubscriberCounter subscriberCounter;
+    private final EventFilterService eventFilterService;
+    private final SearchService searchService;
+    private final CacheLoadCoordinator cacheLoadCoordinator;
+    private final ExistenceFilter existenceFilter;
+
+    private static final String POPULAR_EVENTS_KEY = EventPopularityRanking.POPULAR_EVENTS_KEY;
+    static final String LAST_EVENTS_KEY = "events:last";
     private static final String EVENTS_KEY = "events";
-
-    @PostConstruct
-    public void init() {
-        preheatPopularEventsCache();
-    }
-    
-    private void preheatPopularEventsCache() {
-        log.info("Preheating popular events cache");
-        List<Event> popularEvents = eventRepository.findTop10ByOrderByDateDesc();
-        
-        for (Event event : popularEvents) {
-            redisTemplate.opsForZSet().add(POPULAR_EVENTS_KEY, event.getId(), 1);
+    static final String EVENTS_COUNT_KEY = "events:count";
+
+    /**
+     * Seeds an empty popularity ranking with the latest events and caches the ranked events
+     * and their comment counters.
+     *
+     * @return ids of the popular events, most popular first
+     */
+    public List<String> warmPopularEvents() {
+        Long ranked = redisTemplate.opsForZSet().zCard(POPULAR_EVENTS_KEY);
+        if (ranked == null || ranked == 0) {
+            List<EventDto> latest = eventRepository.findDtosByDateDescIdDesc(Limit.of(10));
+            cacheBulkLoader.putAll(EVENTS_KEY, latest, EventDto::getId);
+            eventPopularityRanking.seedIfEmpty(latest.stream().map(EventDto::getId).toList());
         }
-        
-        log.info("Popular events cache preheated with {} events", popularEvents.size());
+        return getPopularEvents().stream().map(EventDto::getId).toList();
     }
 
-
+    /**
+     * Caches the events of the first page of last events; an empty id list is filled in date order.
+     */
+    public void warmLastEvents(int size) {
+        List<Object> ids = redisTemplate.opsForList().range(LAST_EVENTS_KEY, 0, size - 1);
+        if (ids != null && !ids.isEmpty()) {
+            getEvents(ids.stream().map(Object::toString).toList());
+        } else {
+            List<EventDto> events = eventRepository.findDtosByDateDesc(PageRequest.of(0, size));
+            cacheBulkLoader.putAll(EVENTS_KEY, events, EventDto::getId);
+            RedisLists.fillIfEmpty(redisTemplate, LAST_EVENTS_KEY, events.stream().map(EventDto::getId).toList());
+        }
+        countEvents();
+    }
 
     @Transactional
     public EventDto createEvent(EventDto eventDto) {
-        String EventId = UUID.randomUUID().toString();
+        String EventId = TimeOrderedUuid.next();
         eventDto.setId(EventId);
         Event event = eventMapper.toEvent(eventDto);
+        existenceFilter.add(ExistenceFilter.Type.EVENT, EventId);
         log.info("create cache for id of event {}", EventId);
-        redisTemplate.opsForList().leftPush(LAST_EVENTS_KEY, EventId);
+        AfterCommit.run(() -> {
+            redisTemplate.opsForList().leftPush(LAST_EVENTS_KEY, EventId);
+            redisCounters.increment(EVENTS_COUNT_KEY);
+        });
+        eventFilterService.invalidate(event.getCategory());
+        searchService.indexEvent(EventId, event.getTitle());
 
         return eventMapper
                 .toEventDto(eventRepository.save(event));
     }
 
     public EventDto getEvent(String id) {
-        Cache cache = cacheManager.getCache(EVENTS_KEY);
-        if (cache.get(id, EventDto.class) == null){
-            log.info("Getting event with id {} from MySQL db", id);
-            EventDto event = eventRepository
-                    .findById(id)
-                    .map(eventMapper::toEventDto)
-                    .orElseThrow(()-> new EventNotFoundException(id));
-            putToCache(event);
-            return event;
+        if (!existenceFilter.mightExist(ExistenceFilter.Type.EVENT, id)) {
+            throw new EventNotFoundException(id);
         }
-        log.info("Getting event with id {} from cache", id);
-        return cache.get(id, EventDto.class);
-
+        return cacheLoadCoordinator.get(EVENTS_KEY, id, EventDto.class, () -> {
+            log.debug("Getting event with id {} from MySQL db", id);
+            return eventRepository
+                    .findDtoById(id)
+                    .orElseThrow(()-> new EventNotFoundException(id));
+        });
     }
 
     public EventDto getEventById(String id) {
-        log.info("increment event popularity with id {}", id);
-        redisTemplate.opsForZSet().incrementScore(POPULAR_EVENTS_KEY, id, 1);
-        return getEvent(id);
+        EventDto event = getEvent(id);
+        eventViewCounter.recordView(id);
+        return event.withCommentCount(commentCounter.count(id))
+                .withSubscriberCount(subscriberCounter.count(id));
     }
 
     @CacheEvict(cacheNames = EVENTS_KEY, key = "#id")
     @Transactional
     public EventDto updateEvent(String id, EventDto eventDto) {
         return eventRepository.findById(id).map(event -> {
+            Category category = event.getCategory();
             eventMapper.updateEvent(eventDto, event);
+            eventFilterService.invalidate(category, event.getCategory());
+            searchService.indexEvent(id, event.getTitle());
             return eventMapper.toEventDto(eventRepository.save(event));
         }).orElseThrow(()-> new EventNotFoundException(id));
     }
@@ -100,10 +136,23 @@ public class EventService {
     @CacheEvict(cacheNames = EVENTS_KEY, key = "#id")
     @Transactional
     public boolean deleteEvent(String id) {
-        if (eventRepository.existsById(id)) {
-            eventRepository.deleteById(id);
-            redisTemplate.opsForZSet().remove(POPULAR_EVENTS_KEY, id);
-            redisTemplate.opsForList().remove(LAST_EVENTS_KEY, 1, id);
+        Event event = eventRepository.findById(id).orElse(null);
+        if (event != null) {
+            // The delete cascades through the comments, so reading their ids costs no extra query
+            List<String> commentIds = event.getComments().stream().map(Comment::getId).toList();
+            eventRepository.delete(event);
+            eventFilterService.invalidate(event.getCategory());
+            searchService.removeEvent(id);
+            searchService.removeComments(commentIds);
+            eventViewCounter.forget(id);
+            eventPopularityRanking.remove(id);
+            AfterCommit.run(() -> {
+                redisCounters.decrement(EVENTS_COUNT_KEY);
+                commentCounter.delete(id);
+                redisTemplate.opsForList().remove(LAST_EVENTS_KEY, 1, id);
+            });
+            AfterCommit.run(() -> recentComments.delete(id));
+            AfterCommit.run(() -> subscriberCounter.delete(id));
             log.info("Event with id {} deleted", id);
             return true;
         } else
@@ -112,9 +161,16 @@ public class EventService {
 
     public List<EventDto> getPopularEvents() {
         var ids = redisTemplate.opsForZSet().reverseRange(POPULAR_EVENTS_KEY, 0, 9);
-        return ids.stream()
-                .map(id -> getEvent(id.toString()))
-                .toList();
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return withCommentCounts(getEvents(ids.stream().map(Object::toString).toList()));
+    }
+
+    private List<EventDto> getEvents(List<String> ids) {
+        return cacheBulkLoader.getAll(EVENTS_KEY, ids, EventDto.class,
+                eventRepository::findDtosByIds,
+                EventDto::getId);
     }
 
     public Page<EventDto> getLastEvents(Pageable pageable) {
@@ -127,6 +183,36 @@ public class EventService {
         return getLastEventsFromDb(pageable);
     }
 
+    public CursorPage<EventDto> getLastEvents(String after, int size) {
+        int pageSize = CursorPage.limit(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<EventDto> events;
+        if (after == null || after.isBlank()) {
+            events = eventRepository.findDtosByDateDescIdDesc(limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            events = eventRepository.findDtosAfter(cursor.getTimestamp(), cursor.getId(), limit);
+        }
+        CursorPage<EventDto> page = CursorPage.of(events, pageSize,
+                event -> new PageCursor(event.getDate(), event.getId()));
+        page.setContent(withCommentCounts(page.getContent()));
+        return page;
+    }
+
+    private List<EventDto> withCommentCounts(List<EventDto> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        Map<String, Long> counts = commentCounter.counts(events.stream().map(EventDto::getId).toList());
+        return events.stream()
+                .map(event -> event.withCommentCount(counts.get(event.getId())))
+                .toList();
+    }
+
+    private long countEvents() {
+        return redisCounters.get(EVENTS_COUNT_KEY, key -> eventRepository.count());
+    }
+
     private Page<EventDto> getFirstPageFromCache(Pageable pageable) {
         var ids = redisTemplate.opsForList()
                 .range(LAST_EVENTS_KEY, 0, pageable.getPageSize() - 1);
@@ -134,23 +220,18 @@ public class EventService {
         if (ids == null || ids.isEmpty()){
             return null;
         }
-        log.info("loaded first page from cache");
+        log.debug("loaded first page from cache");
         redisTemplate.opsForList().trim(LAST_EVENTS_KEY, 0,pageable.getPageSize() - 1);
-        log.info("trim last events list");
-        List<EventDto> events = ids.stream()
-                .map(id -> getEvent(id.toString()))
-                .toList();
-        long total = eventRepository.count();
+        log.debug("trim last events list");
+        List<EventDto> events = withCommentCounts(getEvents(ids.stream().map(Object::toString).toList()));
+        long total = countEvents();
         return new PageImpl<>(events, pageable, total);
 
     }
     private Page<EventDto> getLastEventsFromDb(Pageable pageable) {
 
-        log.info("loading last events from db");
-        Page<Event> page = eventRepository.findAllByOrderByDateDesc(pageable);
-
-        List<EventDto> events = page.getContent().stream()
-                    .map(eventMapper::toEventDto).toList();
+        log.debug("loading last events from db");
+        List<EventDto> events = eventRepository.findDtosByDateDesc(pageable);
 
 
         for (int i = 0; i < pageable.getPageSize(); i++) {
@@ -158,11 +239,7 @@ public class EventService {
             redisTemplate.opsForList().leftPush(LAST_EVENTS_KEY, events.get(i).getId());
         }
 
-        return  new PageImpl<>(events, page.getPageable(), page.getTotalElements());
+        return  new PageImpl<>(withCommentCounts(events), pageable, countEvents());
     }
 
-    private void putToCache(EventDto eventDto) {
-        Cache cache = cacheManager.getCache(EVENTS_KEY);
-        cache.put(eventDto.getId(), eventDto);
-    }
 }
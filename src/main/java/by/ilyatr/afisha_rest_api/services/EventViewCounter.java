@@ -0,0 +1,97 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.PopularityProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Aggregates event views in memory and flushes them to the current popularity bucket
+ * in one pipeline, so the read path never waits for a Redis write.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventViewCounter {
+    private final EventPopularityRanking eventPopularityRanking;
+    private final PopularityProperties properties;
+    private final TaskScheduler taskScheduler;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final LongAdder pendingTotal = new LongAdder();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Not synchronized: a monitor held across the Redis call would pin a virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public void recordView(String eventId) {
+        pending.computeIfAbsent(eventId, id -> new LongAdder()).increment();
+        pendingTotal.increment();
+        if (pendingTotal.sum() >= properties.getFlushThreshold() && flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    public void forget(String eventId) {
+        LongAdder views = pending.remove(eventId);
+        if (views != null) {
+            pendingTotal.add(-views.sum());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${afisha.popularity.flush-interval:5s}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<String, Long> increments = drain();
+            if (increments.isEmpty()) {
+                return;
+            }
+            try {
+                eventPopularityRanking.addViews(increments);
+                log.debug("Flushed views of {} events", increments.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not flush views of {} events, keeping them for the next flush", increments.size(), e);
+                increments.forEach((id, views) -> {
+                    pending.computeIfAbsent(id, key -> new LongAdder()).add(views);
+                    pendingTotal.add(views);
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Before the lifecycle beans stop, @PreDestroy would find the Redis connection factory stopped
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        log.info("Flushing pending event views before shutdown");
+        flush();
+    }
+
+    private Map<String, Long> drain() {
+        Map<String, Long> increments = new HashMap<>();
+        // Idle counters stay: a view may be adding to one it just looked up, and removing it would
+        // lose that view. They go when their event is deleted, so the map is bounded by the events.
+        pending.forEach((id, adder) -> {
+            long views = adder.sumThenReset();
+            if (views > 0) {
+                increments.put(id, views);
+                pendingTotal.add(-views);
+            }
+        });
+        return increments;
+    }
+}
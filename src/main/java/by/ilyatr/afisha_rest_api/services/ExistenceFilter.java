@@ -0,0 +1,219 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.cache.BloomFilter;
+import by.ilyatr.afisha_rest_api.configuration.ExistenceFilterProperties;
+import by.ilyatr.afisha_rest_api.ids.BinaryUuidType;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters of existing event, comment and user ids, so lookups of ids that never existed
+ * are answered without Redis or the database.
+ * <p>
+ * Until the first build completes every id might exist. New ids are added right away, so the
+ * creating request can read them back, and again after commit, so a rebuild whose scan started
+ * before the commit does not lose them; they are published to the other nodes after commit. A
+ * rolled back id only costs a false positive until the next rebuild. A rebuild scans the id
+ * columns into fresh filters while new ids go into both, then swaps them in, which also sheds
+ * deleted ids.
+ * <p>
+ * The filters never answer for ids created shortly before their scan started or since: those may
+ * have committed after the scan, or been created on a node whose message was lost. Ids are time
+ * ordered, so such ids are recognised by their timestamp and looked up as if the filter had them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExistenceFilter {
+    public enum Type { EVENT, COMMENT, USER }
+
+    private static final String SEPARATOR = "|";
+    private static final String ID_SEPARATOR = ",";
+
+    private final EventRepository eventRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ExistenceFilterProperties properties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Map<Type, BloomFilter> filters = Map.of();
+    private volatile Map<Type, BloomFilter> next;
+    // Ids created since, per their timestamp, are not answered by the filters
+    private volatile long answersBefore;
+    private final Map<Type, LongAdder> rejected = new EnumMap<>(Map.of(
+            Type.EVENT, new LongAdder(), Type.COMMENT, new LongAdder(), Type.USER, new LongAdder()));
+
+    /**
+     * @return false only if the id definitely does not exist
+     */
+    public boolean mightExist(Type type, String id) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        BloomFilter filter = filters.get(type);
+        // Legacy and upper-case ids resolve to the canonical id stored in the filter
+        String canonical = BinaryUuidType.canonical(id);
+        if (filter == null || filter.mightContain(canonical) || isRecent(canonical)) {
+            return true;
+        }
+        rejected.get(type).increment();
+        return false;
+    }
+
+    private boolean isRecent(String canonicalId) {
+        long createdAt = TimeOrderedUuid.timestampOf(canonicalId);
+        // An id from the future was never issued
+        return createdAt >= answersBefore
+                && createdAt <= System.currentTimeMillis() + properties.getRecentIdWindow().toMillis();
+    }
+
+    public void add(Type type, String id) {
+        addAll(type, List.of(id));
+    }
+
+    public void addAll(Type type, Collection<String> ids) {
+        ids.forEach(id -> addLocal(type, id));
+        AfterCommit.run(() -> {
+            ids.forEach(id -> addLocal(type, id));
+            publish(type, ids);
+        });
+    }
+
+    /**
+     * Applies an addition published by {@link #add} on another node.
+     */
+    public void applyRemote(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Type type = Type.valueOf(parts[1]);
+            for (String id : parts[2].split(ID_SEPARATOR)) {
+                addLocal(type, id);
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring existence filter message {}", message);
+        }
+    }
+
+    private void addLocal(Type type, String id) {
+        // Read the rebuild first: once it is cleared the swapped-in filters are visible
+        Map<Type, BloomFilter> building = next;
+        BloomFilter filter = filters.get(type);
+        if (filter != null) {
+            filter.put(id);
+            if (filter.isOverfilled()) {
+                startRebuild();
+            }
+        }
+        if (building != null) {
+            building.get(type).put(id);
+        }
+    }
+
+    private void publish(Type type, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(properties.getUpdateChannel(),
+                    String.join(SEPARATOR, nodeId, type.name(), String.join(ID_SEPARATOR, ids)));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish {} new {} ids, other nodes look them up as recent ids", ids.size(), type, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        startRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${afisha.existence-filter.rebuild-interval:1h}",
+            initialDelayString = "${afisha.existence-filter.rebuild-interval:1h}")
+    public void startRebuild() {
+        if (!properties.isEnabled() || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        // Counting and reading the ids of three tables would keep the scheduler from its other tasks
+        Thread.ofPlatform().daemon().name("existence-filter-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Existence filter rebuild failed, keeping the current filters", e);
+            } finally {
+                next = null;
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        long scanStartedAt = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Map<Type, BloomFilter> building = new EnumMap<>(Type.class);
+        building.put(Type.EVENT, sized(eventRepository.count()));
+        building.put(Type.COMMENT, sized(commentRepository.count()));
+        building.put(Type.USER, sized(userRepository.count()));
+        next = building;
+        transaction.executeWithoutResult(status -> {
+            try (Stream<String> ids = eventRepository.streamIds()) {
+                ids.forEach(building.get(Type.EVENT)::put);
+            }
+            try (Stream<String> ids = commentRepository.streamIds()) {
+                ids.forEach(building.get(Type.COMMENT)::put);
+            }
+            try (Stream<String> ids = userRepository.streamIds()) {
+                ids.forEach(building.get(Type.USER)::put);
+            }
+        });
+        filters = building;
+        // After the swap, so no reader pairs the old filters with the later bound. Ids committed after
+        // the scan began may be missing: those of transactions in flight and the replica lag
+        answersBefore = scanStartedAt - properties.getRecentIdWindow().toMillis();
+        log.info("Existence filters built in {} ms: {} events, {} comments, {} users",
+                (System.nanoTime() - start) / 1_000_000, building.get(Type.EVENT).insertions(),
+                building.get(Type.COMMENT).insertions(), building.get(Type.USER).insertions());
+    }
+
+    private BloomFilter sized(long rows) {
+        long capacity = Math.max(properties.getMinimumCapacity(), (long) Math.ceil(rows * (1 + properties.getHeadroom())));
+        return BloomFilter.create(capacity, properties.getFalsePositiveRate());
+    }
+
+    /**
+     * @return null until the first build completes
+     */
+    public BloomFilter filter(Type type) {
+        return filters.get(type);
+    }
+
+    public long rejected(Type type) {
+        return rejected.get(type).sum();
+    }
+}
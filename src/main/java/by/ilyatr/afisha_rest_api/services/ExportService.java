@@ -0,0 +1,84 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.Exception.EventNotFoundException;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.entities.Comment;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.mapper.CommentMapper;
+import by.ilyatr.afisha_rest_api.mapper.EventMapper;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * NDJSON export that streams rows from the database to the response in constant memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ExportService {
+    // Rows between persistence context clears
+    private static final int DETACH_INTERVAL = 1000;
+
+    private final EventRepository eventRepository;
+    private final CommentRepository commentRepository;
+    private final EventMapper eventMapper;
+    private final CommentMapper commentMapper;
+    private final JsonMapper jsonMapper;
+    private final EntityManager entityManager;
+
+    public long exportEvents(Category category, Instant from, Instant to, OutputStream out) {
+        try (Stream<Event> events = eventRepository.streamAll(category, from, to)) {
+            long exported = write(events, eventMapper::toEventDto, EventDto.class, out);
+            log.info("Exported {} events", exported);
+            return exported;
+        }
+    }
+
+    public long exportComments(String eventId, OutputStream out) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        try (Stream<Comment> comments = commentRepository.streamAllByEventId(eventId)) {
+            long exported = write(comments, commentMapper::toCommentDto, CommentDto.class, out);
+            log.info("Exported {} comments of event {}", exported, eventId);
+            return exported;
+        }
+    }
+
+    private <E, D> long write(Stream<E> rows, Function<E, D> toDto, Class<D> type, OutputStream out) {
+        ObjectWriter writer = jsonMapper.writerFor(type);
+        long count = 0;
+        try {
+            for (Iterator<E> iterator = rows.iterator(); iterator.hasNext(); ) {
+                out.write(writer.writeValueAsBytes(toDto.apply(iterator.next())));
+                out.write('\n');
+                // Detaches the written rows together with the user and event proxies of comments
+                if (++count % DETACH_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export aborted after " + count + " rows", e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,168 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.RecentCommentsProperties;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The newest comment ids of each event in a Redis sorted set scored by {@code updatedAt}, which
+ * backs the cached first comment page.
+ * <p>
+ * Scores are whole seconds as stored by the {@code timestamp} column and the set is read newest
+ * first, so equal scores fall back to the id as in the comments query.
+ * Writes only touch sets that were loaded, so a set always holds the newest comments of its
+ * event, and every write trims it to the capacity. Scores only move forward, so a load that
+ * read a comment before its update cannot roll it back.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecentComments {
+    // ARGV: capacity, then score and member pairs
+    private static final RedisScript<Long> ADD_IF_EXISTS = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            for i = 2, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], 'GT', ARGV[i], ARGV[i + 1])
+            end
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -tonumber(ARGV[1]) - 1)
+            return 1
+            """, Long.class);
+    // ARGV: capacity, TTL in milliseconds, then score and member pairs
+    private static final RedisScript<Long> LOAD = RedisScript.of("""
+            local created = redis.call('EXISTS', KEYS[1]) == 0
+            for i = 3, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], 'GT', ARGV[i], ARGV[i + 1])
+            end
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -tonumber(ARGV[1]) - 1)
+            if created then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+    private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RecentCommentsProperties properties;
+
+    private static String key(String eventId) {
+        return "event:" + eventId + ":comments:recent";
+    }
+
+    public int capacity() {
+        return properties.getCapacity();
+    }
+
+    /**
+     * @return up to count ids, newest first; empty if the set is not loaded
+     */
+    public List<String> newest(String eventId, int count) {
+        Set<Object> ids = redisTemplate.opsForZSet().reverseRange(key(eventId), 0, count - 1);
+        return ids == null ? List.of() : ids.stream().map(Object::toString).toList();
+    }
+
+    /**
+     * Ids of the comments newer than the given position, oldest first.
+     *
+     * @param total comment count of the event
+     * @return null if the set does not reach back to the position
+     */
+    public List<String> after(String eventId, Instant updatedAt, String id, long total) {
+        Set<ZSetOperations.TypedTuple<Object>> members = redisTemplate.opsForZSet().rangeWithScores(key(eventId), 0, -1);
+        if (members == null || members.isEmpty()) {
+            return total == 0 ? List.of() : null;
+        }
+        long score = score(updatedAt);
+        List<String> newer = new ArrayList<>();
+        boolean reachesBack = members.size() >= total;
+        for (ZSetOperations.TypedTuple<Object> member : members) {
+            int order = Long.compare(member.getScore().longValue(), score);
+            if (order == 0) {
+                order = member.getValue().toString().compareTo(id);
+            }
+            if (order > 0) {
+                newer.add(member.getValue().toString());
+            } else {
+                reachesBack = true;
+            }
+        }
+        return reachesBack ? newer : null;
+    }
+
+    /**
+     * Merges the newest comments of an event as read from the database, creating the set if it
+     * is missing. Loading a longer prefix into a loaded set extends it.
+     */
+    public void load(String eventId, List<CommentDto> newest) {
+        if (newest.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(arg(properties.getCapacity()));
+        args.add(arg(properties.getTtl().toMillis()));
+        addPairs(redisTemplate, args, newest);
+        redisTemplate.execute(LOAD, RedisSerializer.byteArray(), LONG_RESULT, List.of(key(eventId)), args.toArray());
+    }
+
+    public void add(String eventId, Collection<CommentDto> comments) {
+        add(redisTemplate, eventId, comments);
+    }
+
+    /**
+     * Adds or moves up the given comments if the set of their event is loaded, on the given
+     * operations, e.g. inside a pipeline.
+     */
+    public void add(RedisOperations<String, Object> operations, String eventId, Collection<CommentDto> comments) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(arg(properties.getCapacity()));
+        addPairs(operations, args, comments);
+        operations.execute(ADD_IF_EXISTS, RedisSerializer.byteArray(), LONG_RESULT, List.of(key(eventId)), args.toArray());
+    }
+
+    public void remove(String eventId, Collection<String> commentIds) {
+        if (!commentIds.isEmpty()) {
+            redisTemplate.opsForZSet().remove(key(eventId), commentIds.toArray());
+        }
+    }
+
+    public void delete(String eventId) {
+        redisTemplate.delete(key(eventId));
+    }
+
+    // Members are encoded like the other id sets, the script only passes them through
+    @SuppressWarnings("unchecked")
+    private static void addPairs(RedisOperations<String, Object> operations, List<Object> args,
+                                 Collection<CommentDto> comments) {
+        var members = (RedisSerializer<Object>) operations.getValueSerializer();
+        for (CommentDto comment : comments) {
+            args.add(arg(score(comment.getUpdatedAt())));
+            args.add(members.serialize(comment.getId()));
+        }
+    }
+
+    // MySQL rounds fractional seconds to the column precision
+    private static long score(Instant updatedAt) {
+        return Math.floorDiv(updatedAt.toEpochMilli() + 500, 1000);
+    }
+
+    private static byte[] arg(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
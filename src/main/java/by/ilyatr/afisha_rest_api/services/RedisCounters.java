@@ -0,0 +1,112 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Counters kept in Redis and rebuilt from the database on demand.
+ * <p>
+ * Writes only adjust counters that already exist, so a counter is either missing
+ * (and loaded on the next read) or maintained. The TTL bounds drift from writes
+ * that were rolled back after the counter was adjusted.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisCounters {
+    private static final Duration TTL = Duration.ofDays(1);
+    private static final RedisScript<Long> INCREMENT_IF_EXISTS = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                return redis.call('INCRBY', KEYS[1], ARGV[1])
+            end
+            return nil
+            """, Long.class);
+    private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public long get(String key, Function<String, Long> loader) {
+        return getAll(List.of(key), missing -> Map.of(key, loader.apply(key))).get(key);
+    }
+
+    /**
+     * Reads all counters with one MGET; missing ones are loaded with a single loader call
+     * and stored in one pipeline. Keys the loader does not return count as zero.
+     */
+    public Map<String, Long> getAll(List<String> keys, Function<List<String>, Map<String, Long>> loader) {
+        Map<String, Long> result = new HashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            if (value == null) {
+                missing.add(keys.get(i));
+            } else {
+                result.put(keys.get(i), Long.parseLong(value));
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<String, Long> loaded = new HashMap<>();
+        Map<String, Long> fromLoader = loader.apply(missing);
+        missing.forEach(key -> loaded.put(key, fromLoader.getOrDefault(key, 0L)));
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                var ops = (RedisOperations<String, String>) operations;
+                loaded.forEach((key, count) -> ops.opsForValue().setIfAbsent(key, count.toString(), TTL));
+                return null;
+            }
+        });
+        result.putAll(loaded);
+        return result;
+    }
+
+    public void increment(String key) {
+        add(key, 1);
+    }
+
+    public void decrement(String key) {
+        add(key, -1);
+    }
+
+    public void add(String key, long delta) {
+        stringRedisTemplate.execute(INCREMENT_IF_EXISTS, List.of(key), Long.toString(delta));
+    }
+
+    /**
+     * Same as {@link #add(String, long)} on the given operations, e.g. inside a pipeline of another template.
+     */
+    public void add(RedisOperations<String, ?> operations, String key, long delta) {
+        operations.execute(INCREMENT_IF_EXISTS, RedisSerializer.string(), LONG_RESULT, List.of(key), Long.toString(delta));
+    }
+
+    public void delete(String key) {
+        stringRedisTemplate.delete(key);
+    }
+
+    public void deleteAll(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Helpers for the id lists that back the cached first pages.
+ */
+final class RedisLists {
+    private static final RedisScript<Long> PUSH_IF_EMPTY = RedisScript.of("""
+            if redis.call('LLEN', KEYS[1]) == 0 then
+                return redis.call('RPUSH', KEYS[1], unpack(ARGV))
+            end
+            return 0
+            """, Long.class);
+
+    private RedisLists() {
+    }
+
+    /**
+     * Fills an empty list with the ids in the given order, head first. A list that already has
+     * entries is left alone, so nodes filling it at the same time do not duplicate them.
+     */
+    static void fillIfEmpty(RedisOperations<String, Object> operations, String key, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        operations.execute(PUSH_IF_EMPTY, List.of(key), ids.toArray());
+    }
+}
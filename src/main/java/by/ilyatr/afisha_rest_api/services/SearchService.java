@@ -0,0 +1,330 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.Exception.InvalidFilterException;
+import by.ilyatr.afisha_rest_api.configuration.SearchProperties;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.search.InvertedIndex;
+import by.ilyatr.afisha_rest_api.search.SearchResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over event titles and comment texts, served from in-process inverted indexes.
+ * <p>
+ * The indexes are loaded from a memory-mapped snapshot at startup, then rebuilt from a streamed
+ * scan of the tables in the background. Local writes are applied after commit and published to
+ * the other nodes; writes that arrive during a rebuild are applied to both the current and the
+ * new index, and the scan skips the documents they touched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+    public static final int MAX_WINDOW = 1000;
+
+    private static final String EVENTS = "events";
+    private static final String COMMENTS = "comments";
+    private static final String SEPARATOR = "|";
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+
+    private final EventRepository eventRepository;
+    private final CommentRepository commentRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SearchProperties properties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Guards swapping the indexes and the pending rebuild, so no write is lost between them
+    private final ReentrantLock swapLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private volatile InvertedIndex events = new InvertedIndex();
+    private volatile InvertedIndex comments = new InvertedIndex();
+    private Rebuild rebuild;
+
+    private volatile long eventsBytes;
+    private volatile long commentsBytes;
+    private long snapshotModifications = -1;
+
+    public Page<SearchResult.Hit> searchEvents(String query, int page, int size) {
+        return search(events, query, page, size);
+    }
+
+    public Page<SearchResult.Hit> searchComments(String query, int page, int size) {
+        return search(comments, query, page, size);
+    }
+
+    private Page<SearchResult.Hit> search(InvertedIndex index, String query, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, Math.clamp(size, 1, 100));
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_WINDOW) {
+            throw new InvalidFilterException("Search results are limited to the first " + MAX_WINDOW + " hits");
+        }
+        SearchResult result = index.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(result.getHits(), pageable, result.getTotal());
+    }
+
+    public void indexEvent(String id, String title) {
+        AfterCommit.run(() -> apply(EVENTS, UPSERT, id, title, true));
+    }
+
+    public void removeEvent(String id) {
+        AfterCommit.run(() -> apply(EVENTS, DELETE, id, null, true));
+    }
+
+    public void indexComment(String id, String text) {
+        AfterCommit.run(() -> apply(COMMENTS, UPSERT, id, text, true));
+    }
+
+    public void removeComments(Collection<String> ids) {
+        AfterCommit.run(() -> ids.forEach(id -> apply(COMMENTS, DELETE, id, null, true)));
+    }
+
+    /**
+     * Applies an update published by {@link #apply} on another node.
+     */
+    public void applyRemote(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, 5);
+        if (parts.length != 5 || nodeId.equals(parts[0])) {
+            return;
+        }
+        apply(parts[1], parts[2], parts[3], parts[4], false);
+    }
+
+    private void apply(String type, String operation, String id, String text, boolean publish) {
+        swapLock.lock();
+        try {
+            apply(index(type), operation, id, text);
+            if (rebuild != null) {
+                rebuild.touched(type).add(id);
+                apply(rebuild.index(type), operation, id, text);
+            }
+        } finally {
+            swapLock.unlock();
+        }
+        if (publish) {
+            try {
+                stringRedisTemplate.convertAndSend(properties.getUpdateChannel(),
+                        String.join(SEPARATOR, nodeId, type, operation, id, text != null ? text : ""));
+            } catch (RuntimeException e) {
+                log.warn("Could not publish search index update of {} {}, other nodes catch up on rebuild", type, id, e);
+            }
+        }
+    }
+
+    private static void apply(InvertedIndex index, String operation, String id, String text) {
+        if (UPSERT.equals(operation)) {
+            index.put(id, text);
+        } else {
+            index.remove(id);
+        }
+    }
+
+    private InvertedIndex index(String type) {
+        return EVENTS.equals(type) ? events : comments;
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        Path path = properties.getSnapshotPath();
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            events = InvertedIndex.readFrom(buffer);
+            comments = InvertedIndex.readFrom(buffer);
+            snapshotModifications = events.modifications() + comments.modifications();
+            refreshFootprint();
+            log.info("Search index snapshot loaded in {} ms: {} events, {} comments, ~{} KB",
+                    (System.nanoTime() - start) / 1_000_000, events.size(), comments.size(),
+                    (eventsBytes + commentsBytes) / 1024);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load search index snapshot {}, waiting for the rebuild", path, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        startRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${afisha.search.rebuild-interval:6h}",
+            initialDelayString = "${afisha.search.rebuild-interval:6h}")
+    public void startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        // Reading every title and comment text takes long enough to delay the other scheduled tasks
+        Thread.ofPlatform().daemon().name("search-index-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Search index rebuild failed, keeping the current index", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        Rebuild next = new Rebuild();
+        swapLock.lock();
+        try {
+            rebuild = next;
+        } finally {
+            swapLock.unlock();
+        }
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = eventRepository.streamTitles()) {
+                    rows.forEach(row -> next.scan(EVENTS, (String) row[0], (String) row[1]));
+                }
+                try (Stream<Object[]> rows = commentRepository.streamTexts()) {
+                    rows.forEach(row -> next.scan(COMMENTS, (String) row[0], (String) row[1]));
+                }
+            });
+            swapLock.lock();
+            try {
+                events = next.events;
+                comments = next.comments;
+            } finally {
+                swapLock.unlock();
+            }
+        } finally {
+            swapLock.lock();
+            try {
+                if (rebuild == next) {
+                    rebuild = null;
+                }
+            } finally {
+                swapLock.unlock();
+            }
+        }
+        refreshFootprint();
+        log.info("Search index rebuilt in {} ms: {} events, {} comments, ~{} KB",
+                (System.nanoTime() - start) / 1_000_000, events.size(), comments.size(),
+                (eventsBytes + commentsBytes) / 1024);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${afisha.search.snapshot-interval:10m}",
+            initialDelayString = "${afisha.search.snapshot-interval:10m}")
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() {
+        InvertedIndex currentEvents = events;
+        InvertedIndex currentComments = comments;
+        long modifications = currentEvents.modifications() + currentComments.modifications();
+        if (modifications == snapshotModifications) {
+            return;
+        }
+        Path path = properties.getSnapshotPath().toAbsolutePath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                currentEvents.writeTo(out);
+                currentComments.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotModifications = modifications;
+            refreshFootprint();
+            log.debug("Search index snapshot written to {}", path);
+        } catch (IOException e) {
+            log.warn("Could not write search index snapshot {}", path, e);
+        }
+    }
+
+    private void refreshFootprint() {
+        eventsBytes = events.estimatedBytes();
+        commentsBytes = comments.estimatedBytes();
+    }
+
+    /**
+     * Estimated heap size of the index, refreshed on load, rebuild and snapshot.
+     */
+    public long estimatedBytes(String type) {
+        return EVENTS.equals(type) ? eventsBytes : commentsBytes;
+    }
+
+    public int documents(String type) {
+        return index(type).size();
+    }
+
+    public int terms(String type) {
+        return index(type).termCount();
+    }
+
+    public static Set<String> types() {
+        return Set.of(EVENTS, COMMENTS);
+    }
+
+    private final class Rebuild {
+        private final InvertedIndex events = new InvertedIndex();
+        private final InvertedIndex comments = new InvertedIndex();
+        private final Set<String> touchedEvents = new HashSet<>();
+        private final Set<String> touchedComments = new HashSet<>();
+
+        InvertedIndex index(String type) {
+            return EVENTS.equals(type) ? events : comments;
+        }
+
+        Set<String> touched(String type) {
+            return EVENTS.equals(type) ? touchedEvents : touchedComments;
+        }
+
+        // A row written during the scan may be older than the update already applied
+        void scan(String type, String id, String text) {
+            swapLock.lock();
+            try {
+                if (!touched(type).contains(id)) {
+                    index(type).put(id, text);
+                }
+            } finally {
+                swapLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.repositories.SubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Per-event subscriber counts maintained in Redis by the subscription write paths.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubscriberCounter {
+    private final RedisCounters redisCounters;
+    private final SubscriptionRepository subscriptionRepository;
+
+    private static String key(String eventId) {
+        return "event:" + eventId + ":subscribers:count";
+    }
+
+    public long count(String eventId) {
+        return redisCounters.get(key(eventId), key -> subscriptionRepository.countByEventId(eventId));
+    }
+
+    public void increment(String eventId) {
+        redisCounters.increment(key(eventId));
+    }
+
+    public void decrement(String eventId) {
+        redisCounters.decrement(key(eventId));
+    }
+
+    public void delete(String eventId) {
+        redisCounters.delete(key(eventId));
+    }
+
+    public void deleteAll(List<String> eventIds) {
+        redisCounters.deleteAll(eventIds.stream().map(SubscriberCounter::key).toList());
+    }
+}
@@ -0,0 +1,94 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.Exception.EventNotFoundException;
+import by.ilyatr.afisha_rest_api.Exception.UserNotFoundException;
+import by.ilyatr.afisha_rest_api.dto.CursorPage;
+import by.ilyatr.afisha_rest_api.dto.PageCursor;
+import by.ilyatr.afisha_rest_api.dto.SubscriptionDto;
+import by.ilyatr.afisha_rest_api.entities.Subscription;
+import by.ilyatr.afisha_rest_api.mapper.SubscriptionMapper;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.repositories.SubscriptionRepository;
+import by.ilyatr.afisha_rest_api.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class SubscriptionService {
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final SubscriptionMapper subscriptionMapper;
+    private final SubscriberCounter subscriberCounter;
+
+    /**
+     * @return false if the user is already subscribed
+     */
+    @Transactional
+    public boolean subscribe(String userId, String eventId) {
+        if (subscriptionRepository.insertIgnore(userId, eventId, Instant.now()) == 0) {
+            // Existence is only checked on this path, a new subscription costs one statement
+            if (!userRepository.existsById(userId)) {
+                throw new UserNotFoundException(userId);
+            }
+            if (!eventRepository.existsById(eventId)) {
+                throw new EventNotFoundException(eventId);
+            }
+            return false;
+        }
+        AfterCommit.run(() -> subscriberCounter.increment(eventId));
+        log.info("User {} subscribed to event {}", userId, eventId);
+        return true;
+    }
+
+    @Transactional
+    public boolean unsubscribe(String userId, String eventId) {
+        if (subscriptionRepository.delete(userId, eventId) == 0) {
+            return false;
+        }
+        AfterCommit.run(() -> subscriberCounter.decrement(eventId));
+        log.info("User {} unsubscribed from event {}", userId, eventId);
+        return true;
+    }
+
+    public CursorPage<SubscriptionDto> getUserSubscriptions(String userId, String after, int size) {
+        int pageSize = CursorPage.limit(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Subscription> subscriptions;
+        if (after == null || after.isBlank()) {
+            subscriptions = subscriptionRepository.findAllByUserId(userId, limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            subscriptions = subscriptionRepository.findAllByUserIdAfter(userId, cursor.getTimestamp(), cursor.getId(), limit);
+        }
+        return CursorPage.of(subscriptions.stream().map(subscriptionMapper::toSubscriptionDto).toList(), pageSize,
+                subscription -> new PageCursor(subscription.getCreatedAt(), subscription.getEventId()));
+    }
+
+    public CursorPage<SubscriptionDto> getEventSubscribers(String eventId, String after, int size) {
+        int pageSize = CursorPage.limit(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Subscription> subscriptions;
+        if (after == null || after.isBlank()) {
+            subscriptions = subscriptionRepository.findAllByEventId(eventId, limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            subscriptions = subscriptionRepository.findAllByEventIdAfter(eventId, cursor.getTimestamp(), cursor.getId(), limit);
+        }
+        return CursorPage.of(subscriptions.stream().map(subscriptionMapper::toSubscriptionDto).toList(), pageSize,
+                subscription -> new PageCursor(subscription.getCreatedAt(), subscription.getUserId()));
+    }
+
+    public long countSubscribers(String eventId) {
+        return subscriberCounter.count(eventId);
+    }
+}
@@ -2,8 +2,11 @@ package by.ilyatr.afisha_rest_api.services;
 
 import by.ilyatr.afisha_rest_api.Exception.UserNotFoundException;
 import by.ilyatr.afisha_rest_api.dto.UserDto;
+import by.ilyatr.afisha_rest_api.entities.Comment;
 import by.ilyatr.afisha_rest_api.entities.User;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
 import by.ilyatr.afisha_rest_api.mapper.UserMapper;
+import by.ilyatr.afisha_rest_api.repositories.SubscriptionRepository;
 import by.ilyatr.afisha_rest_api.repositories.UserRepository;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +16,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.UUID;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,13 +27,20 @@ import java.util.UUID;
 public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriberCounter subscriberCounter;
+    private final SearchService searchService;
+    private final ExistenceFilter existenceFilter;
+    private final RecentComments recentComments;
+    private final CommentCounter commentCounter;
 
     @Transactional
     public UserDto createUser(UserDto userDto) {
-        String userId = UUID.randomUUID().toString();
+        String userId = TimeOrderedUuid.next();
         userDto.setId(userId);
         userDto.setCreatedAt(Instant.now());
         User user = userMapper.toUser(userDto);
+        existenceFilter.add(ExistenceFilter.Type.USER, userId);
         userRepository.save(user);
         log.info("User with id {} created", userId);
         return userRepository
@@ -39,9 +51,11 @@ public class UserService {
 
 
     public UserDto getUserById(String id) {
+        if (!existenceFilter.mightExist(ExistenceFilter.Type.USER, id)) {
+            throw new UserNotFoundException(id);
+        }
         return userRepository
-                .findById(id)
-                .map(userMapper::toUserDto)
+                .findDtoById(id)
                 .orElseThrow(()-> new UserNotFoundException(id));
     }
 
@@ -56,8 +70,22 @@ public class UserService {
 
     @Transactional
     public boolean deleteUser(String id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
+        User user = userRepository.findById(id).orElse(null);
+        if (user != null) {
+            // Subscriptions and comments go with the user, recount the affected events on next read
+            List<String> subscribedEventIds = subscriptionRepository.findEventIdsByUserId(id);
+            // Fetched by the orphan removal on delete, grouping them here adds no query
+            List<String> commentIds = user.getComments().stream().map(Comment::getId).toList();
+            Map<String, List<String>> commentIdsByEvent = user.getComments().stream()
+                    .collect(Collectors.groupingBy(comment -> comment.getEvent().getId(),
+                            Collectors.mapping(Comment::getId, Collectors.toList())));
+            userRepository.delete(user);
+            AfterCommit.run(() -> subscriberCounter.deleteAll(subscribedEventIds));
+            searchService.removeComments(commentIds);
+            AfterCommit.run(() -> commentIdsByEvent.forEach((eventId, eventCommentIds) -> {
+                recentComments.remove(eventId, eventCommentIds);
+                commentCounter.delete(eventId);
+            }));
             log.info("User with id {} deleted", id);
             return true;
         } else{
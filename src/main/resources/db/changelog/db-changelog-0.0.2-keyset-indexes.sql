@@ -0,0 +1,4 @@
+-- liquibase formatted sql
+
+-- changeset ilyatr:9-create-comments-keyset-index
+CREATE INDEX idx_comments_event_id_updated_at_id ON comments(event_id, updated_at DESC, id DESC);
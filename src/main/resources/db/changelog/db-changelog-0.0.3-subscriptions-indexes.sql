@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+
+-- changeset ilyatr:10-create-subscriptions-keyset-indexes
+CREATE INDEX idx_subscriptions_user_id_created_at ON subscriptions(user_id, created_at DESC, event_id DESC);
+CREATE INDEX idx_subscriptions_event_id_created_at ON subscriptions(event_id, created_at DESC, user_id DESC);
@@ -0,0 +1,4 @@
+-- liquibase formatted sql
+
+-- changeset ilyatr:11-create-events-category-price-index
+CREATE INDEX idx_events_category_price ON events(category, price);
@@ -0,0 +1,83 @@
+-- liquibase formatted sql
+
+-- Ids become BINARY(16). A canonical UUID keeps its bytes; any other id, such as the seed ids,
+-- becomes the name-based (version 3) UUID of its text, the mapping BinaryUuidType applies when
+-- such an id is looked up.
+
+-- changeset ilyatr:12-drop-string-key-constraints
+ALTER TABLE subscriptions DROP FOREIGN KEY fk_sub_users;
+ALTER TABLE subscriptions DROP FOREIGN KEY fk_sub_events;
+ALTER TABLE comments DROP FOREIGN KEY fk_com_users;
+ALTER TABLE comments DROP FOREIGN KEY fk_com_events;
+DROP INDEX idx_comments_event_id ON comments;
+DROP INDEX idx_comments_user_id ON comments;
+DROP INDEX idx_comments_event_id_created_at ON comments;
+DROP INDEX idx_comments_event_id_updated_at_id ON comments;
+DROP INDEX idx_subscriptions_user_id_created_at ON subscriptions;
+DROP INDEX idx_subscriptions_event_id_created_at ON subscriptions;
+
+-- changeset ilyatr:13-convert-keys-to-binary-uuid
+ALTER TABLE users ADD COLUMN id_bin BINARY(16);
+UPDATE users SET id_bin = CASE
+    WHEN id REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'
+        THEN UNHEX(REPLACE(id, '-', ''))
+    ELSE UNHEX(CONCAT(SUBSTR(MD5(id), 1, 12), '3', SUBSTR(MD5(id), 14, 3),
+                      HEX((CONV(SUBSTR(MD5(id), 17, 1), 16, 10) & 3) | 8), SUBSTR(MD5(id), 18)))
+END;
+
+ALTER TABLE events ADD COLUMN id_bin BINARY(16);
+UPDATE events SET id_bin = CASE
+    WHEN id REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'
+        THEN UNHEX(REPLACE(id, '-', ''))
+    ELSE UNHEX(CONCAT(SUBSTR(MD5(id), 1, 12), '3', SUBSTR(MD5(id), 14, 3),
+                      HEX((CONV(SUBSTR(MD5(id), 17, 1), 16, 10) & 3) | 8), SUBSTR(MD5(id), 18)))
+END;
+
+ALTER TABLE comments ADD COLUMN id_bin BINARY(16), ADD COLUMN user_id_bin BINARY(16), ADD COLUMN event_id_bin BINARY(16);
+UPDATE comments SET id_bin = CASE
+    WHEN id REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'
+        THEN UNHEX(REPLACE(id, '-', ''))
+    ELSE UNHEX(CONCAT(SUBSTR(MD5(id), 1, 12), '3', SUBSTR(MD5(id), 14, 3),
+                      HEX((CONV(SUBSTR(MD5(id), 17, 1), 16, 10) & 3) | 8), SUBSTR(MD5(id), 18)))
+END;
+UPDATE comments c
+    JOIN users u ON u.id = c.user_id
+    JOIN events e ON e.id = c.event_id
+SET c.user_id_bin = u.id_bin, c.event_id_bin = e.id_bin;
+
+ALTER TABLE subscriptions ADD COLUMN user_id_bin BINARY(16), ADD COLUMN event_id_bin BINARY(16);
+UPDATE subscriptions s
+    JOIN users u ON u.id = s.user_id
+    JOIN events e ON e.id = s.event_id
+SET s.user_id_bin = u.id_bin, s.event_id_bin = e.id_bin;
+
+ALTER TABLE subscriptions DROP PRIMARY KEY, DROP COLUMN user_id, DROP COLUMN event_id;
+ALTER TABLE subscriptions
+    CHANGE user_id_bin user_id BINARY(16) NOT NULL FIRST,
+    CHANGE event_id_bin event_id BINARY(16) NOT NULL AFTER user_id;
+ALTER TABLE comments DROP PRIMARY KEY, DROP COLUMN id, DROP COLUMN user_id, DROP COLUMN event_id;
+ALTER TABLE comments
+    CHANGE id_bin id BINARY(16) NOT NULL FIRST,
+    CHANGE user_id_bin user_id BINARY(16) NOT NULL AFTER id,
+    CHANGE event_id_bin event_id BINARY(16) NOT NULL AFTER user_id;
+ALTER TABLE events DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE events CHANGE id_bin id BINARY(16) NOT NULL FIRST;
+ALTER TABLE users DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE users CHANGE id_bin id BINARY(16) NOT NULL FIRST;
+
+-- changeset ilyatr:14-restore-binary-key-constraints
+ALTER TABLE users ADD CONSTRAINT pk_users PRIMARY KEY(id);
+ALTER TABLE events ADD CONSTRAINT pk_events PRIMARY KEY(id);
+ALTER TABLE comments ADD CONSTRAINT pk_comments PRIMARY KEY(id);
+ALTER TABLE subscriptions ADD CONSTRAINT pk_subscriptions PRIMARY KEY(user_id, event_id);
+ALTER TABLE subscriptions
+    ADD CONSTRAINT fk_sub_users FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_sub_events FOREIGN KEY(event_id) REFERENCES events(id) ON DELETE CASCADE;
+ALTER TABLE comments
+    ADD CONSTRAINT fk_com_users FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_com_events FOREIGN KEY(event_id) REFERENCES events(id) ON DELETE CASCADE;
+CREATE INDEX idx_comments_user_id ON comments(user_id);
+CREATE INDEX idx_comments_event_id_created_at ON comments(event_id, created_at DESC);
+CREATE INDEX idx_comments_event_id_updated_at_id ON comments(event_id, updated_at DESC, id DESC);
+CREATE INDEX idx_subscriptions_user_id_created_at ON subscriptions(user_id, created_at DESC, event_id DESC);
+CREATE INDEX idx_subscriptions_event_id_created_at ON subscriptions(event_id, created_at DESC, user_id DESC);
@@ -0,0 +1,147 @@
+package by.ilyatr.afisha_rest_api.cache;
+
+import by.ilyatr.afisha_rest_api.configuration.CacheLoadProperties;
+import by.ilyatr.afisha_rest_api.configuration.NearCacheProperties;
+import by.ilyatr.afisha_rest_api.metrics.CacheLoadMetrics;
+import by.ilyatr.afisha_rest_api.support.InProcessRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheLoadCoordinatorTest {
+    private static final String CACHE = "comments";
+    private static final String KEY = "c1";
+
+    private static InProcessRedis redis;
+
+    private CacheLoadCoordinator coordinator;
+    private Cache cache;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new InProcessRedis();
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        var redisCacheManager = RedisCacheManager.builder(redis.connectionFactory())
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                                RedisSerializer.json())))
+                .initialCacheNames(Set.of(CACHE))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        var bulkOperations = new RedisCacheBulkOperations(redis.template());
+        var cacheManager = new TwoTierCacheManager(redisCacheManager, new NearCacheProperties(),
+                new CacheInvalidationPublisher(redis.stringTemplate(), "cache:invalidation"), bulkOperations);
+        var properties = new CacheLoadProperties();
+        // Every hit of a remembered entry refreshes it
+        properties.setEarlyRefreshBeta(1e12);
+        coordinator = new CacheLoadCoordinator(cacheManager, redis.stringTemplate(),
+                new CacheLoadMetrics(new SimpleMeterRegistry()), bulkOperations, properties);
+        cache = cacheManager.getCache(CACHE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.shutdown();
+    }
+
+    @Test
+    void earlyRefreshReplacesAnUnchangedEntry() throws Exception {
+        coordinator.get(CACHE, KEY, String.class, () -> "v1");
+
+        assertThat(coordinator.get(CACHE, KEY, String.class, () -> "v2")).isEqualTo("v1");
+
+        assertThat(awaitValue("v2")).isEqualTo("v2");
+    }
+
+    @Test
+    void earlyRefreshDoesNotOverwriteAWriteMadeWhileLoading() throws Exception {
+        coordinator.get(CACHE, KEY, String.class, () -> "v1");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        coordinator.get(CACHE, KEY, String.class, () -> {
+            loading.countDown();
+            await(written);
+            refreshed.countDown();
+            return "stale";
+        });
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.put(KEY, "written");
+        written.countDown();
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        // Let the refresh finish its replace
+        Thread.sleep(200);
+
+        assertThat(cache.get(KEY, String.class)).isEqualTo("written");
+        assertThat(shared().get(KEY, String.class)).isEqualTo("written");
+    }
+
+    @Test
+    void earlyRefreshDoesNotRestoreAnEvictedEntry() throws Exception {
+        coordinator.get(CACHE, KEY, String.class, () -> "v1");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        coordinator.get(CACHE, KEY, String.class, () -> {
+            loading.countDown();
+            await(evicted);
+            refreshed.countDown();
+            return "stale";
+        });
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.evict(KEY);
+        evicted.countDown();
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+
+        assertThat(cache.get(KEY, String.class)).isNull();
+        assertThat(shared().get(KEY, String.class)).isNull();
+    }
+
+    private Cache shared() {
+        return ((TwoTierCache) cache).redisCache();
+    }
+
+    private String awaitValue(String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String value = cache.get(KEY, String.class);
+        while (!expected.equals(value) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            value = cache.get(KEY, String.class);
+        }
+        return value;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
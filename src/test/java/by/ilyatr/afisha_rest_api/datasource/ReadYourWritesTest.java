@@ -0,0 +1,47 @@
+package by.ilyatr.afisha_rest_api.datasource;
+
+import by.ilyatr.afisha_rest_api.configuration.DataSourceRoutingProperties;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTest {
+    private final DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(properties);
+
+    @Test
+    void cookieWithinTheWindowPinsTheRequest() throws Exception {
+        assertThat(pinnedWithCookie(Long.toString(System.currentTimeMillis() + 2_000))).isTrue();
+    }
+
+    @Test
+    void expiredCookieDoesNotPin() throws Exception {
+        assertThat(pinnedWithCookie(Long.toString(System.currentTimeMillis() - 1))).isFalse();
+    }
+
+    @Test
+    void cookieEndingBeyondAnyIssuedWindowIsIgnored() throws Exception {
+        assertThat(pinnedWithCookie(Long.toString(Long.MAX_VALUE))).isFalse();
+        long tooFar = System.currentTimeMillis() + properties.getReadYourWritesWindow().toMillis() + 60_000;
+        assertThat(pinnedWithCookie(Long.toString(tooFar))).isFalse();
+    }
+
+    @Test
+    void malformedCookieDoesNotPin() throws Exception {
+        assertThat(pinnedWithCookie("forever")).isFalse();
+    }
+
+    private boolean pinnedWithCookie(String value) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/api/v1/events/popular");
+        request.setCookies(new Cookie(properties.getReadYourWritesCookie(), value));
+        AtomicBoolean pinned = new AtomicBoolean();
+        readYourWrites.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(readYourWrites.isPinnedToPrimary()));
+        return pinned.get();
+    }
+}
@@ -0,0 +1,103 @@
+package by.ilyatr.afisha_rest_api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private final HikariDataSource primary = mock(HikariDataSource.class);
+    private final HikariDataSource replica = mock(HikariDataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(replica), null);
+    }
+
+    @Test
+    void readOnlyConnectionsGoToTheReplica() throws SQLException {
+        read();
+
+        assertThat(dataSource.reads(replica)).isEqualTo(1);
+        verify(replicaConnection).createStatement();
+        verify(primaryConnection, never()).createStatement();
+    }
+
+    @Test
+    void writesGoToThePrimary() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+
+        verify(primaryConnection).createStatement();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void failingReplicaFallsBackToThePrimaryUntilItPassesAHealthCheck() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("replica down"));
+
+        read();
+        read();
+
+        assertThat(dataSource.isHealthy(replica)).isFalse();
+        assertThat(dataSource.primaryReads(ReplicaRoutingDataSource.PrimaryRead.FALLBACK)).isEqualTo(2);
+        // Marked unhealthy by the first read, so the second does not try it
+        verify(replica, times(1)).getConnection();
+
+        doReturn(replicaConnection).when(replica).getConnection();
+        when(replicaConnection.isValid(1)).thenReturn(true);
+        dataSource.checkReplicas();
+        read();
+
+        assertThat(dataSource.isHealthy(replica)).isTrue();
+        assertThat(dataSource.reads(replica)).isEqualTo(1);
+    }
+
+    @Test
+    void failedHealthCheckTakesTheReplicaOutOfRotation() throws SQLException {
+        when(replicaConnection.isValid(1)).thenReturn(false);
+
+        dataSource.checkReplicas();
+        read();
+
+        assertThat(dataSource.isHealthy(replica)).isFalse();
+        assertThat(dataSource.primaryReads(ReplicaRoutingDataSource.PrimaryRead.FALLBACK)).isEqualTo(1);
+    }
+
+    @Test
+    void readsWithOtherCredentialsGoToThePrimary() throws SQLException {
+        when(primary.getConnection("reporting", "secret")).thenReturn(primaryConnection);
+
+        try (Connection connection = dataSource.getConnection("reporting", "secret")) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+
+        verify(primaryConnection).createStatement();
+        verify(replica, never()).getConnection();
+    }
+
+    private void read() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+    }
+}
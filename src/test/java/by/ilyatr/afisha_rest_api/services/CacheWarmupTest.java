@@ -0,0 +1,41 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.WarmupProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheWarmupTest {
+    private final EventService eventService = mock(EventService.class);
+    private final CommentService commentService = mock(CommentService.class);
+
+    @Test
+    void completesWithASingleWarmupThread() throws InterruptedException {
+        when(eventService.warmPopularEvents()).thenReturn(List.of("e1", "e2", "e3"));
+        WarmupProperties properties = new WarmupProperties();
+        properties.setParallelism(1);
+        properties.setTimeout(Duration.ofSeconds(5));
+        CacheWarmup warmup = new CacheWarmup(eventService, commentService, properties, new MockEnvironment());
+
+        warmup.start();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (Status.OUT_OF_SERVICE.equals(warmup.health().getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(warmup.health().getDetails()).containsEntry("state", "done");
+        verify(eventService).warmLastEvents(anyInt());
+        for (String id : List.of("e1", "e2", "e3")) {
+            verify(commentService).warmFirstPage(id, properties.getCommentsPageSize());
+        }
+    }
+}
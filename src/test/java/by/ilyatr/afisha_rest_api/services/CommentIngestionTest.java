@@ -0,0 +1,111 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.CommentIngestionProperties;
+import by.ilyatr.afisha_rest_api.dto.CommentDto;
+import by.ilyatr.afisha_rest_api.entities.Category;
+import by.ilyatr.afisha_rest_api.entities.Event;
+import by.ilyatr.afisha_rest_api.entities.User;
+import by.ilyatr.afisha_rest_api.ids.TimeOrderedUuid;
+import by.ilyatr.afisha_rest_api.metrics.CommentIngestionMetrics;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.repositories.UserRepository;
+import by.ilyatr.afisha_rest_api.search.SearchResult;
+import by.ilyatr.afisha_rest_api.support.ApplicationTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommentIngestionTest extends ApplicationTest {
+    @Autowired
+    private CommentBatchWriter commentBatchWriter;
+    @Autowired
+    private ExistenceFilter existenceFilter;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SearchService searchService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CommentIngestion ingestion;
+    private String userId;
+    private String eventId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(User.builder().id(TimeOrderedUuid.next()).name("reader")
+                .email("reader-" + System.nanoTime() + "@example.com").password("secret")
+                .createdAt(Instant.now()).build()).getId();
+        eventId = eventRepository.save(Event.builder().id(TimeOrderedUuid.next()).title("Ingested")
+                .date(Instant.now().plus(Duration.ofDays(30))).category(Category.Concert)
+                .price(BigDecimal.TEN).build()).getId();
+        CommentIngestionProperties properties = new CommentIngestionProperties();
+        properties.setEnabled(true);
+        properties.setMaxBatchDelay(Duration.ofMillis(200));
+        properties.setRetryBackoff(Duration.ofMillis(10));
+        ingestion = new CommentIngestion(commentBatchWriter, existenceFilter,
+                new CommentIngestionMetrics(meterRegistry), properties);
+        ingestion.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestion.stop();
+    }
+
+    @Test
+    void commentOnAMissingEventIsDroppedAndTheRestOfItsBatchWritten() throws InterruptedException {
+        // A recent id passes the existence filter, so only the database finds it missing
+        String missingEvent = TimeOrderedUuid.next();
+
+        CommentDto before = ingestion.enqueue(comment(eventId));
+        CommentDto orphan = ingestion.enqueue(comment(missingEvent));
+        CommentDto after = ingestion.enqueue(comment(eventId));
+
+        assertThat(awaitHandled(3)).isTrue();
+        assertThat(meterRegistry.counter("comments.ingestion.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("comments.ingestion.written").count()).isEqualTo(2);
+        assertThat(commentRepository.existsById(before.getId())).isTrue();
+        assertThat(commentRepository.existsById(after.getId())).isTrue();
+        assertThat(commentRepository.existsById(orphan.getId())).isFalse();
+    }
+
+    @Test
+    void writtenCommentIsSearchable() throws InterruptedException {
+        CommentDto written = ingestion.enqueue(new CommentDto(null, userId, eventId, "Unforgettable saxophone solo",
+                null, null));
+
+        assertThat(awaitHandled(1)).isTrue();
+        assertThat(searchService.searchComments("saxophone", 0, 10).getContent())
+                .extracting(SearchResult.Hit::getId).contains(written.getId());
+    }
+
+    private CommentDto comment(String event) {
+        return new CommentDto(null, userId, event, "text", null, null);
+    }
+
+    private boolean awaitHandled(int comments) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            double handled = meterRegistry.counter("comments.ingestion.written").count()
+                    + meterRegistry.counter("comments.ingestion.dropped").count();
+            if (handled >= comments) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.EventImportProperties;
+import by.ilyatr.afisha_rest_api.dto.EventImportResult;
+import by.ilyatr.afisha_rest_api.mapper.EventMapper;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.support.ApplicationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class EventImportServiceTest extends ApplicationTest {
+    private static final String VALID = """
+            {"title":"%s","date":"2027-01-01T19:00:00Z","category":"Concert","price":10.50}
+            """;
+    // Past the precision of the price column, so only the database rejects it
+    private static final String PRICE_OVERFLOW = """
+            {"title":"Too expensive","date":"2027-01-01T19:00:00Z","category":"Concert","price":1e40}
+            """;
+
+    @Autowired
+    private EventBatchWriter eventBatchWriter;
+    @Autowired
+    private EventMapper eventMapper;
+    @Autowired
+    private JsonMapper jsonMapper;
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+    @Autowired
+    private RedisCounters redisCounters;
+    @Autowired
+    private EventFilterService eventFilterService;
+    @Autowired
+    private SearchService searchService;
+    @Autowired
+    private ExistenceFilter existenceFilter;
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void rejectedChunkIsReportedAndTheImportGoesOn() {
+        long before = eventRepository.count();
+        String body = VALID.formatted("a") + VALID.formatted("b")
+                + PRICE_OVERFLOW + VALID.formatted("c")
+                + VALID.formatted("d");
+
+        EventImportResult result = importService(searchService).importEvents(stream(body));
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getFailures()).extracting(EventImportResult.RowFailure::getRow).containsExactly(3L, 4L);
+        assertThat(result.getFailures()).allSatisfy(failure -> assertThat(failure.getError()).startsWith("Chunk rolled back"));
+        assertThat(eventRepository.count()).isEqualTo(before + 3);
+    }
+
+    @Test
+    void failedSideEffectsKeepCommittedRowsImported() {
+        long before = eventRepository.count();
+        SearchService failingSearch = mock(SearchService.class);
+        doThrow(new IllegalStateException("index unavailable")).when(failingSearch).indexEvent(anyString(), any());
+
+        EventImportResult result = importService(failingSearch)
+                .importEvents(stream(VALID.formatted("e") + VALID.formatted("f")));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+        assertThat(eventRepository.count()).isEqualTo(before + 2);
+    }
+
+    private EventImportService importService(SearchService search) {
+        EventImportProperties properties = new EventImportProperties();
+        properties.setChunkSize(2);
+        return new EventImportService(eventBatchWriter, eventMapper, jsonMapper, redisTemplate, redisCounters,
+                properties, eventFilterService, search, existenceFilter);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.PopularityProperties;
+import by.ilyatr.afisha_rest_api.dto.EventDto;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.support.InProcessRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventPopularityRankingTest {
+    private static InProcessRedis redis;
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final PopularityProperties properties = new PopularityProperties();
+    private EventPopularityRanking ranking;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new InProcessRedis();
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        properties.setTopSize(2);
+        // Every ranked event still exists
+        when(eventRepository.findIdsByIds(anyCollection()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<String>>getArgument(0)));
+        ranking = new EventPopularityRanking(redis.template(), eventRepository, properties);
+    }
+
+    @Test
+    void rebuildKeepsTheTopEventsOfTheWindow() {
+        ranking.addViews(Map.of("a", 5L, "b", 3L, "c", 1L));
+
+        ranking.rebuild();
+
+        assertThat(ranked()).containsExactly("a", "b");
+    }
+
+    @Test
+    void concurrentRebuildsEachPublishAWholeRanking() throws Exception {
+        ranking.addViews(Map.of("a", 5L, "b", 3L, "c", 1L));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> rebuilds = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                rebuilds.add(() -> {
+                    ranking.rebuild();
+                    return null;
+                });
+            }
+            for (Future<Void> rebuild : executor.invokeAll(rebuilds)) {
+                rebuild.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ranked()).containsExactly("a", "b");
+        assertThat(redis.template().keys("events:popular:rebuild:*")).isEmpty();
+    }
+
+    @Test
+    void emptyWindowFallsBackToTheLatestEvents() {
+        redis.template().opsForZSet().add(EventPopularityRanking.POPULAR_EVENTS_KEY, "stale", 10);
+        when(eventRepository.findDtosByDateDescIdDesc(any())).thenReturn(List.of(event("x"), event("y")));
+
+        ranking.rebuild();
+
+        assertThat(ranked()).containsExactlyInAnyOrder("x", "y");
+        assertThat(redis.template().opsForZSet().score(EventPopularityRanking.POPULAR_EVENTS_KEY, "x"))
+                .isZero();
+    }
+
+    private List<String> ranked() {
+        return redis.template().opsForZSet().reverseRange(EventPopularityRanking.POPULAR_EVENTS_KEY, 0, -1)
+                .stream().map(Object::toString).toList();
+    }
+
+    private static EventDto event(String id) {
+        return new EventDto(id, "Event " + id, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,83 @@
+package by.ilyatr.afisha_rest_api.services;
+
+import by.ilyatr.afisha_rest_api.configuration.ExistenceFilterProperties;
+import by.ilyatr.afisha_rest_api.repositories.CommentRepository;
+import by.ilyatr.afisha_rest_api.repositories.EventRepository;
+import by.ilyatr.afisha_rest_api.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExistenceFilterTest {
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ExistenceFilterProperties properties = new ExistenceFilterProperties();
+    private ExistenceFilter existenceFilter;
+
+    private final String existingEvent = idCreatedAt(System.currentTimeMillis() - 2 * HOUR);
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        when(eventRepository.streamIds()).thenAnswer(invocation -> Stream.of(existingEvent));
+        when(commentRepository.streamIds()).thenAnswer(invocation -> Stream.empty());
+        when(userRepository.streamIds()).thenAnswer(invocation -> Stream.empty());
+        existenceFilter = new ExistenceFilter(eventRepository, commentRepository, userRepository,
+                mock(PlatformTransactionManager.class), mock(StringRedisTemplate.class), properties);
+        existenceFilter.startRebuild();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (existenceFilter.filter(ExistenceFilter.Type.EVENT) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(existenceFilter.filter(ExistenceFilter.Type.EVENT)).isNotNull();
+    }
+
+    @Test
+    void answersForIdsOlderThanTheBuild() {
+        assertThat(existenceFilter.mightExist(ExistenceFilter.Type.EVENT, existingEvent)).isTrue();
+        assertThat(existenceFilter.mightExist(ExistenceFilter.Type.EVENT,
+                idCreatedAt(System.currentTimeMillis() - HOUR))).isFalse();
+        assertThat(existenceFilter.mightExist(ExistenceFilter.Type.EVENT, "legacy-event")).isFalse();
+    }
+
+    @Test
+    void idsCreatedElsewhereSinceTheBuildAreLookedUp() {
+        // Created on another node whose message never arrived
+        String unannounced = idCreatedAt(System.currentTimeMillis());
+
+        assertThat(existenceFilter.mightExist(ExistenceFilter.Type.EVENT, unannounced)).isTrue();
+        assertThat(existenceFilter.rejected(ExistenceFilter.Type.EVENT)).isZero();
+    }
+
+    @Test
+    void idsCommittedAfterTheScanStartedAreLookedUp() {
+        // Created before the scan, committed after it
+        String lateCommit = idCreatedAt(System.currentTimeMillis() - Duration.ofSeconds(30).toMillis());
+
+        assertThat(existenceFilter.mightExist(ExistenceFilter.Type.EVENT, lateCommit)).isTrue();
+    }
+
+    @Test
+    void idsFromTheFutureAreRejected() {
+        assertThat(existenceFilter.mightExist(ExistenceFilter.Type.EVENT,
+                idCreatedAt(System.currentTimeMillis() + HOUR))).isFalse();
+    }
+
+    private static String idCreatedAt(long millis) {
+        long mostSignificant = millis << 16 | 0x7000L | ThreadLocalRandom.current().nextLong(0x1000);
+        long leastSignificant = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+}
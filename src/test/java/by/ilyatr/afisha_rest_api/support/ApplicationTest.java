@@ -0,0 +1,40 @@
+package by.ilyatr.afisha_rest_api.support;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Base of tests running the whole application on H2 and a Redis server in the test JVM.
+ * The context, and so the database and Redis, is shared by all of them.
+ */
+@SpringBootTest(args = "--spring.config.additional-location=classpath:/test.yaml")
+public abstract class ApplicationTest {
+    private static final RedisServer REDIS = startRedis();
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", REDIS::getBindPort);
+    }
+
+    private static RedisServer startRedis() {
+        try {
+            RedisServer server = RedisServer.newRedisServer().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.stop();
+                } catch (IOException ignored) {
+                    // The JVM is exiting anyway
+                }
+            }));
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package by.ilyatr.afisha_rest_api.support;
+
+import by.ilyatr.afisha_rest_api.configuration.RedisConfiguration;
+import by.ilyatr.afisha_rest_api.configuration.CacheSerializationProperties;
+import com.github.fppt.jedismock.RedisServer;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A Redis server in the test JVM with templates configured like the application's.
+ */
+public class InProcessRedis implements AutoCloseable {
+    private final RedisServer server;
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisTemplate<String, Object> template;
+    private final StringRedisTemplate stringTemplate;
+
+    public InProcessRedis() {
+        try {
+            server = RedisServer.newRedisServer().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisConfiguration.valueSerializer(new CacheSerializationProperties().getIds()));
+        template.afterPropertiesSet();
+
+        stringTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    public LettuceConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    public RedisTemplate<String, Object> template() {
+        return template;
+    }
+
+    public StringRedisTemplate stringTemplate() {
+        return stringTemplate;
+    }
+
+    public void flushAll() {
+        template.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+}